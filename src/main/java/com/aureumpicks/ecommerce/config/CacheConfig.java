@@ -0,0 +1,78 @@
+package com.aureumpicks.ecommerce.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.thread.Threading;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.time.Duration;
+import java.util.List;
+
+// Only read models (DTOs, unmodifiable lists) are cached: a cached entity would be one mutable object shared
+// by every caller, and a write through it would change what everyone else reads before it was saved
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String PRODUCT_DETAILS = "productDetails";
+    public static final String PRODUCTS_BY_CATEGORY = "productsByCategory";
+    public static final String TOKEN_VERSIONS = "tokenVersions";
+
+    @Value("${app.cache.products.max-size:10000}")
+    private long productsMaxSize;
+
+    @Value("${app.cache.products.ttl-seconds:600}")
+    private long productsTtlSeconds;
+
+    @Value("${app.cache.product-lists.max-size:500}")
+    private long productListsMaxSize;
+
+    @Value("${app.cache.product-lists.ttl-seconds:300}")
+    private long productListsTtlSeconds;
+
+    @Value("${app.cache.token-versions.max-size:50000}")
+    private long tokenVersionsMaxSize;
+
+    // Upper bound on how long another instance may keep accepting a revoked token
+    @Value("${app.cache.token-versions.ttl-seconds:60}")
+    private long tokenVersionsTtlSeconds;
+
+    @Autowired
+    private Environment environment;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Don't silently create unbounded caches for names we didn't configure
+        cacheManager.setCacheNames(List.of());
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // A sync=true miss runs its load inside the map's compute, under a monitor that pins a virtual
+            // thread for the whole database read. Async caches only install a future there; the load runs
+            // on its own virtual thread and callers park on the future instead.
+            SimpleAsyncTaskExecutor loader = new SimpleAsyncTaskExecutor("cache-load-");
+            loader.setVirtualThreads(true);
+            cacheManager.setAsyncCacheMode(true);
+            cacheManager.registerCustomCache(PRODUCT_DETAILS, bounded(productsMaxSize, productsTtlSeconds).executor(loader).buildAsync());
+            cacheManager.registerCustomCache(PRODUCTS_BY_CATEGORY, bounded(productListsMaxSize, productListsTtlSeconds).executor(loader).buildAsync());
+            cacheManager.registerCustomCache(TOKEN_VERSIONS, bounded(tokenVersionsMaxSize, tokenVersionsTtlSeconds).executor(loader).buildAsync());
+            return cacheManager;
+        }
+        cacheManager.registerCustomCache(PRODUCT_DETAILS, bounded(productsMaxSize, productsTtlSeconds).build());
+        cacheManager.registerCustomCache(PRODUCTS_BY_CATEGORY, bounded(productListsMaxSize, productListsTtlSeconds).build());
+        cacheManager.registerCustomCache(TOKEN_VERSIONS, bounded(tokenVersionsMaxSize, tokenVersionsTtlSeconds).build());
+        return cacheManager;
+    }
+
+    private Caffeine<Object, Object> bounded(long maxSize, long ttlSeconds) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats();
+    }
+}
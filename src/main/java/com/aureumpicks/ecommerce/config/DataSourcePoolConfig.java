@@ -0,0 +1,45 @@
+package com.aureumpicks.ecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+// With platform threads Tomcat's worker pool (200 by default) caps how many requests can wait for a
+// connection. Virtual threads remove that cap, so in that mode the pool becomes the throttle: it is sized
+// for the database rather than for the number of callers, and a caller that can't get a connection fails
+// fast instead of joining an unbounded queue for Hikari's default 30 seconds.
+@Configuration
+public class DataSourcePoolConfig {
+    private static final Logger logger = LoggerFactory.getLogger(DataSourcePoolConfig.class);
+
+    @Bean
+    public static BeanPostProcessor virtualThreadPoolSizing(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource dataSource) || !Threading.VIRTUAL.isActive(environment)) {
+                    return bean;
+                }
+                // Explicit spring.datasource.hikari.* settings always win
+                if (!environment.containsProperty("spring.datasource.hikari.maximum-pool-size")) {
+                    int cores = Runtime.getRuntime().availableProcessors();
+                    int size = environment.getProperty("app.datasource.virtual.max-pool-size", Integer.class,
+                            Math.max(10, cores * 2 + 1));
+                    dataSource.setMaximumPoolSize(size);
+                }
+                if (!environment.containsProperty("spring.datasource.hikari.connection-timeout")) {
+                    dataSource.setConnectionTimeout(environment.getProperty(
+                            "app.datasource.virtual.connection-timeout-ms", Long.class, 3000L));
+                }
+                logger.info("Virtual threads enabled: connection pool max {} connections, {} ms acquire timeout",
+                        dataSource.getMaximumPoolSize(), dataSource.getConnectionTimeout());
+                return bean;
+            }
+        };
+    }
+}
@@ -1,11 +1,14 @@
 package com.aureumpicks.ecommerce.config;  // confg → config
 
+import com.aureumpicks.ecommerce.service.TokenRevocationService;
 import com.aureumpicks.ecommerce.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,6 +17,8 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;  // flter → filter
 import java.io.IOException;
+import java.util.Collections;
+
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
@@ -22,6 +27,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    // claims: trust the verified JWT and only check its token version (cached); database: reload the user per request
+    @Value("${app.security.auth-mode:claims}")
+    private String authMode;
+
     // ADD THIS METHOD
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
@@ -37,7 +49,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 path.endsWith(".ico") ||
                 path.equals("/health") ||
                 path.startsWith("/api/auth/") ||
-                path.startsWith("/api/products/");
+                path.equals("/api/products") ||
+                // Imports need the caller's identity (SecurityConfig)
+                (path.startsWith("/api/products/") && !path.startsWith("/api/products/import"));
     }
 
     @Override
@@ -45,28 +59,42 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
         final String authorizationHeader = request.getHeader("Authorization");
-        String username = null;
-        String jwt = null;
+        Claims claims = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+            String jwt = authorizationHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
+                // Verifies signature and expiry once; everything below works off these claims
+                claims = jwtUtil.parseClaims(jwt);
             } catch (Exception e) {
                 logger.error("JWT Token extraction failed: " + e.getMessage());
             }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        if (claims != null && claims.getSubject() != null
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String username = claims.getSubject();
+            UsernamePasswordAuthenticationToken authenticationToken = null;
+
+            if ("database".equalsIgnoreCase(authMode)) {
+                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+                authenticationToken = new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities()
+                );
+            } else {
+                Integer currentVersion = tokenRevocationService.getTokenVersion(username);
+                if (currentVersion != null && currentVersion == jwtUtil.extractTokenVersion(claims)) {
+                    authenticationToken = new UsernamePasswordAuthenticationToken(
+                            username,
+                            null,
+                            Collections.emptyList()
+                    );
+                }
+            }
 
-            if (jwtUtil.validateToken(jwt, userDetails.getUsername())) {
-                UsernamePasswordAuthenticationToken authenticationToken =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities()
-                        );
+            if (authenticationToken != null) {
                 authenticationToken.setDetails(
                         new WebAuthenticationDetailsSource().buildDetails(request)
                 );
@@ -2,8 +2,10 @@ package com.aureumpicks.ecommerce.controller;
 
 import com.aureumpicks.ecommerce.dto.*;
 import com.aureumpicks.ecommerce.service.AuthService;
+import com.aureumpicks.ecommerce.service.PasswordHashingBusyException;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -22,6 +24,8 @@ public class AuthController {
         try {
             MessageResponse response = authService.signup(request);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (PasswordHashingBusyException e) {
+            return busy(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(new MessageResponse(e.getMessage()));
@@ -58,6 +62,8 @@ public class AuthController {
         try {
             AuthResponse response = authService.login(request);
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingBusyException e) {
+            return busy(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new MessageResponse(e.getMessage()));
@@ -82,9 +88,18 @@ public class AuthController {
         try {
             MessageResponse response = authService.resetPassword(request);
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingBusyException e) {
+            return busy(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(new MessageResponse(e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    // Hashing pool saturated: tell the client when to come back instead of holding the request
+    private ResponseEntity<MessageResponse> busy(PasswordHashingBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new MessageResponse(e.getMessage()));
+    }
+}
@@ -1,9 +1,13 @@
 package com.aureumpicks.ecommerce.controller;
 
+import com.aureumpicks.ecommerce.dto.CartBatchRequest;
+import com.aureumpicks.ecommerce.dto.CartBatchResponse;
 import com.aureumpicks.ecommerce.dto.CartRequest;
 import com.aureumpicks.ecommerce.dto.CartResponse;
+import com.aureumpicks.ecommerce.dto.CartSummaryResponse;
 import com.aureumpicks.ecommerce.dto.MessageResponse;
 import com.aureumpicks.ecommerce.service.CartService;
+import com.aureumpicks.ecommerce.service.CartSummaryService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -22,6 +26,9 @@ public class CartController {
     @Autowired
     private CartService cartService;
 
+    @Autowired
+    private CartSummaryService cartSummaryService;
+
     // Get current user's email from JWT token
     private String getCurrentUserEmail() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -41,6 +48,19 @@ public class CartController {
         }
     }
 
+    // Item count, subtotal and version for badges; reads one maintained row instead of every line
+    @GetMapping("/summary")
+    public ResponseEntity<?> getCartSummary() {
+        try {
+            String email = getCurrentUserEmail();
+            CartSummaryResponse summary = cartSummaryService.getSummary(email);
+            return ResponseEntity.ok(summary);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageResponse("Error fetching cart summary: " + e.getMessage()));
+        }
+    }
+
     // Add to cart
     @PostMapping("/add")
     public ResponseEntity<?> addToCart(@Valid @RequestBody CartRequest request) {
@@ -54,6 +74,19 @@ public class CartController {
         }
     }
 
+    // Apply many add/update/remove operations in one transaction; per-operation errors are in the results
+    @PostMapping("/batch")
+    public ResponseEntity<?> applyBatch(@Valid @RequestBody CartBatchRequest request) {
+        try {
+            String email = getCurrentUserEmail();
+            CartBatchResponse response = cartService.applyBatch(email, request.getOperations());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse("Error updating cart: " + e.getMessage()));
+        }
+    }
+
     // Update cart item quantity
     @PutMapping("/update/{cartId}")
     public ResponseEntity<?> updateCartItem(@PathVariable Long cartId, @RequestParam Integer quantity) {
@@ -0,0 +1,66 @@
+package com.aureumpicks.ecommerce.controller;
+
+import com.aureumpicks.ecommerce.dto.MessageResponse;
+import com.aureumpicks.ecommerce.dto.OrderResponse;
+import com.aureumpicks.ecommerce.service.OrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/orders")
+@CrossOrigin(origins = "*")
+public class OrderController {
+
+    @Autowired
+    private OrderService orderService;
+
+    private String getCurrentUserEmail() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication.getName();
+    }
+
+    // Place an order from the current cart; clients should send a fresh Idempotency-Key per checkout
+    // attempt and reuse it when retrying after a timeout
+    @PostMapping("/checkout")
+    public ResponseEntity<?> checkout(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        try {
+            String email = getCurrentUserEmail();
+            OrderResponse order = orderService.checkout(email, idempotencyKey);
+            return ResponseEntity.status(order.getReplayed() ? HttpStatus.OK : HttpStatus.CREATED).body(order);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse("Error placing order: " + e.getMessage()));
+        }
+    }
+
+    // Current user's orders, newest first
+    @GetMapping
+    public ResponseEntity<?> getUserOrders() {
+        try {
+            String email = getCurrentUserEmail();
+            List<OrderResponse> orders = orderService.getUserOrders(email);
+            return ResponseEntity.ok(orders);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageResponse("Error fetching orders: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{orderId}")
+    public ResponseEntity<?> getUserOrder(@PathVariable Long orderId) {
+        try {
+            String email = getCurrentUserEmail();
+            OrderResponse order = orderService.getUserOrder(email, orderId);
+            return ResponseEntity.ok(order);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new MessageResponse("Error fetching order: " + e.getMessage()));
+        }
+    }
+}
@@ -1,14 +1,26 @@
 package com.aureumpicks.ecommerce.controller;
 
 import com.aureumpicks.ecommerce.dto.MessageResponse;
+import com.aureumpicks.ecommerce.dto.ProductBrowseResponse;
+import com.aureumpicks.ecommerce.dto.ProductImportStatus;
+import com.aureumpicks.ecommerce.dto.ProductSearchResponse;
+import com.aureumpicks.ecommerce.dto.ProductSummary;
 import com.aureumpicks.ecommerce.model.Product;
+import com.aureumpicks.ecommerce.productimport.ProductImportService;
+import com.aureumpicks.ecommerce.service.CatalogVersionService;
+import com.aureumpicks.ecommerce.service.ProductResponseCache;
 import com.aureumpicks.ecommerce.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/api/products")
@@ -18,12 +30,46 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
-    // Get all products
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private ProductResponseCache productResponseCache;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    // Get one keyset page of product list rows (?sort=id|price|rating|createdAt&direction=asc|desc&size=&cursor=)
+    @GetMapping
+    public ResponseEntity<?> getProductPage(@RequestParam(required = false) String sort,
+                                            @RequestParam(required = false) String direction,
+                                            @RequestParam(required = false) Integer size,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            return productResponseCache.page(sort, direction, size, cursor, acceptEncoding);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse("Error fetching products: " + e.getMessage()));
+        }
+    }
+
+    // Get all products (unbounded - prefer GET /api/products)
+    @Deprecated
     @GetMapping("/all")
-    public ResponseEntity<?> getAllProducts() {
+    public ResponseEntity<?> getAllProducts(WebRequest request) {
         try {
-            List<Product> products = productService.getAllProducts();
-            return ResponseEntity.ok(products);
+            // Revalidation is answered from the in-memory catalog version, before any query or serialization
+            if (request.checkNotModified(catalogVersionService.catalogETag(),
+                    catalogVersionService.getLastModified().toEpochMilli())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .cacheControl(catalogVersionService.cacheControl())
+                        .build();
+            }
+            List<ProductSummary> products = productService.getAllProducts();
+            return ResponseEntity.ok()
+                    .cacheControl(catalogVersionService.cacheControl())
+                    .body(products);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new MessageResponse("Error fetching products: " + e.getMessage()));
@@ -32,10 +78,11 @@ public class ProductController {
 
     // Get product by ID
     @GetMapping("/{id}")
-    public ResponseEntity<?> getProductById(@PathVariable Long id) {
+    public ResponseEntity<?> getProductById(@PathVariable Long id,
+                                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            Product product = productService.getProductById(id);
-            return ResponseEntity.ok(product);
+            // Pre-encoded bytes; a matching If-None-Match gets 304 from Spring MVC without the body being written
+            return productResponseCache.product(id, acceptEncoding);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(new MessageResponse(e.getMessage()));
@@ -44,28 +91,63 @@ public class ProductController {
 
     // Get products by category
     @GetMapping("/category/{category}")
-    public ResponseEntity<?> getProductsByCategory(@PathVariable String category) {
+    public ResponseEntity<?> getProductsByCategory(@PathVariable String category,
+                                                   @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            List<Product> products = productService.getProductsByCategory(category);
-            return ResponseEntity.ok(products);
+            return productResponseCache.category(category, acceptEncoding);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new MessageResponse("Error fetching products: " + e.getMessage()));
         }
     }
 
-    // Search products
+    // Search products by name, category and description (?q= or ?name=, &page=&size=)
     @GetMapping("/search")
-    public ResponseEntity<?> searchProducts(@RequestParam String name) {
+    public ResponseEntity<?> searchProducts(@RequestParam(required = false) String q,
+                                            @RequestParam(required = false) String name,
+                                            @RequestParam(required = false) Integer page,
+                                            @RequestParam(required = false) Integer size) {
         try {
-            List<Product> products = productService.searchProducts(name);
-            return ResponseEntity.ok(products);
+            String query = q != null ? q : name;
+            if (query == null || query.isBlank()) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new MessageResponse("Search query is required"));
+            }
+            ProductSearchResponse results = productService.searchProducts(query, page, size);
+            return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new MessageResponse(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new MessageResponse("Error searching products: " + e.getMessage()));
         }
     }
 
+    // Faceted listing (?category=&price=&minRating=&inStock=&page=&size=); category and price may repeat
+    @GetMapping("/browse")
+    public ResponseEntity<?> browseProducts(@RequestParam(required = false) List<String> category,
+                                            @RequestParam(required = false) List<String> price,
+                                            @RequestParam(required = false) Integer minRating,
+                                            @RequestParam(required = false) Boolean inStock,
+                                            @RequestParam(required = false) Integer page,
+                                            @RequestParam(required = false) Integer size) {
+        try {
+            if (!productService.isBrowseAvailable()) {
+                // Facet index still loading after startup
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "5")
+                        .body(new MessageResponse("Product filters are warming up, please retry shortly"));
+            }
+            ProductBrowseResponse results = productService.browseProducts(category, price, minRating, inStock, page, size);
+            return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new MessageResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageResponse("Error browsing products: " + e.getMessage()));
+        }
+    }
+
     // Add new product (Admin only - you can add @PreAuthorize later)
     @PostMapping("/add")
     public ResponseEntity<?> addProduct(@RequestBody Product product) {
@@ -78,6 +160,47 @@ public class ProductController {
         }
     }
 
+    // Bulk upsert by sku from a streamed CSV (header row) or NDJSON body (Admin only). Format from ?format=csv|ndjson
+    // or the Content-Type; Content-Encoding: gzip bodies are unpacked on the fly
+    @PostMapping("/import")
+    public ResponseEntity<?> importProducts(@RequestParam(required = false) String format,
+                                            HttpServletRequest request) {
+        String resolvedFormat = ProductImportService.resolveFormat(format, request.getContentType());
+        if (resolvedFormat == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse("Send text/csv or application/x-ndjson, or pass ?format=csv|ndjson"));
+        }
+        try {
+            InputStream body = request.getInputStream();
+            if ("gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))) {
+                body = new GZIPInputStream(body);
+            }
+            ProductImportStatus status = productImportService.importProducts(body, resolvedFormat);
+            return ResponseEntity.status("COMPLETED".equals(status.getState()) ? HttpStatus.OK : HttpStatus.BAD_REQUEST)
+                    .body(status);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new MessageResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageResponse("Error importing products: " + e.getMessage()));
+        }
+    }
+
+    // Running and recent imports with their progress
+    @GetMapping("/import")
+    public ResponseEntity<List<ProductImportStatus>> getImports() {
+        return ResponseEntity.ok(productImportService.getRecent());
+    }
+
+    @GetMapping("/import/{id}")
+    public ResponseEntity<?> getImport(@PathVariable String id) {
+        ProductImportStatus status = productImportService.getStatus(id);
+        if (status == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new MessageResponse("Import not found: " + id));
+        }
+        return ResponseEntity.ok(status);
+    }
+
     // Update product (Admin only)
     @PutMapping("/update/{id}")
     public ResponseEntity<?> updateProduct(@PathVariable Long id, @RequestBody Product product) {
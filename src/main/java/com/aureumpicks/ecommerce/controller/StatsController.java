@@ -0,0 +1,79 @@
+package com.aureumpicks.ecommerce.controller;
+
+import com.aureumpicks.ecommerce.service.StatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/stats")
+@CrossOrigin(origins = "*")
+public class StatsController {
+
+    @Autowired
+    private StatsService statsService;
+
+    // Product catalog cache hit/miss/eviction counters
+    @GetMapping("/cache")
+    public Map<String, Object> cacheStats() {
+        return statsService.getCacheStats();
+    }
+
+    // Email outbox depth by status plus send pipeline batch size, latency and rate
+    @GetMapping("/email-outbox")
+    public Map<String, Object> emailOutboxStats() {
+        return statsService.getEmailOutboxStats();
+    }
+
+    // Stock holds, pending checkout decrements and refused reservations
+    @GetMapping("/inventory")
+    public Map<String, Object> inventoryStats() {
+        return statsService.getInventoryStats();
+    }
+
+    // Abandoned-cart purge runs, chunk timings and totals removed
+    @GetMapping("/cart-purge")
+    public Map<String, Object> cartPurgeStats() {
+        return statsService.getCartPurgeStats();
+    }
+
+    // BCrypt pool occupancy, rejections and cost upgrades done at login
+    @GetMapping("/password-hashing")
+    public Map<String, Object> passwordHashingStats() {
+        return statsService.getPasswordHashingStats();
+    }
+
+    // Auth endpoint throttling: allowed/rejected per rule, tracked keys and per-check cost
+    @GetMapping("/rate-limit")
+    public Map<String, Object> rateLimitStats() {
+        return statsService.getRateLimitStats();
+    }
+
+    // One-time codes: live count in the configured store, issued/accepted/refused, expired codes evicted
+    @GetMapping("/otp")
+    public Map<String, Object> otpStats() {
+        return statsService.getOtpStats();
+    }
+
+    // Catalog validators: current version behind the /all ETag, its Last-Modified and the product count seen
+    @GetMapping("/catalog")
+    public Map<String, Object> catalogStats() {
+        return statsService.getCatalogVersionStats();
+    }
+
+    // Pre-encoded catalog responses: entries, bytes against the budget, hit rate, evictions, gzip bodies sent
+    @GetMapping("/response-cache")
+    public Map<String, Object> responseCacheStats() {
+        return statsService.getResponseCacheStats();
+    }
+
+    // Facet bitmaps: products and categories indexed, memory held by the bitsets, browse query latency
+    @GetMapping("/facets")
+    public Map<String, Object> facetStats() {
+        return statsService.getFacetStats();
+    }
+}
@@ -0,0 +1,16 @@
+package com.aureumpicks.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBatchResponse {
+
+    private List<CartOperationResult> results;
+    private List<CartResponse> cart;
+}
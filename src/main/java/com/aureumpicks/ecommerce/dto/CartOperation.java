@@ -0,0 +1,22 @@
+package com.aureumpicks.ecommerce.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One step of a batch cart update. ADD needs productId; UPDATE and REMOVE take either cartId or productId.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartOperation {
+
+    public enum Type { ADD, UPDATE, REMOVE }
+
+    @NotNull(message = "Operation type is required")
+    private Type type;
+
+    private Long productId;
+    private Long cartId;
+    private Integer quantity;
+}
@@ -0,0 +1,15 @@
+package com.aureumpicks.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartOperationResult {
+
+    private Integer index;
+    private Boolean success;
+    private String error;
+}
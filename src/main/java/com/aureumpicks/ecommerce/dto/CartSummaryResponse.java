@@ -0,0 +1,20 @@
+package com.aureumpicks.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartSummaryResponse {
+
+    private Integer itemCount;
+    private Integer lineCount;
+    private BigDecimal subtotal;
+    private Long version;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,17 @@
+package com.aureumpicks.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Row count and newest updated_at of the products table; changes whenever any product is added, edited or removed
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogStamp {
+
+    private Long productCount;
+    private LocalDateTime lastUpdatedAt;
+}
@@ -0,0 +1,20 @@
+package com.aureumpicks.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+// Matches per facet value. Each facet is counted with every other facet's filter applied but not its own,
+// so the numbers say what picking that value instead (or as well) would return.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCounts {
+
+    private Map<String, Integer> categories;
+    private Map<String, Integer> prices;      // "25-50", ..., "1000+"
+    private Map<String, Integer> ratings;     // "4+" = rating of at least 4
+    private int inStock;
+}
@@ -0,0 +1,25 @@
+package com.aureumpicks.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderResponse {
+
+    private Long id;
+    private String orderNumber;
+    private String status;
+    private Integer itemCount;
+    private BigDecimal total;
+    private LocalDateTime createdAt;
+    private List<OrderLineResponse> lines;
+    // True when an idempotent retry returned the order placed by an earlier attempt
+    private Boolean replayed;
+}
@@ -0,0 +1,19 @@
+package com.aureumpicks.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBrowseResponse {
+
+    private List<ProductSummary> items;
+    private int total;
+    private int page;
+    private int size;
+    private FacetCounts facets;
+}
@@ -0,0 +1,29 @@
+package com.aureumpicks.ecommerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Product page: the card fields plus the description, read straight into this object rather than an entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductDetail {
+
+    private Long id;
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private Integer stock;
+    private String category;
+    private String imageUrl;
+    private Double rating;
+
+    // Only for the ETag and Last-Modified headers
+    @JsonIgnore
+    private LocalDateTime updatedAt;
+}
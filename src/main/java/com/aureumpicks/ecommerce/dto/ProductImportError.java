@@ -0,0 +1,15 @@
+package com.aureumpicks.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportError {
+
+    private long line;      // line the rejected record starts on (CSV header is line 1)
+    private String sku;     // null when the record could not be parsed
+    private String message;
+}
@@ -0,0 +1,28 @@
+package com.aureumpicks.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Progress of one bulk import; polled while it runs and returned when it finishes
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportStatus {
+
+    private String id;
+    private String format;
+    private String state;            // RUNNING, COMPLETED, FAILED
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long rowsRead;
+    private long inserted;
+    private long updated;
+    private long rejected;
+    private List<ProductImportError> errors;
+    private boolean errorsTruncated; // more rows were rejected than are listed
+    private String message;
+}
@@ -0,0 +1,18 @@
+package com.aureumpicks.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPageResponse {
+
+    private List<ProductSummary> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private int size;
+}
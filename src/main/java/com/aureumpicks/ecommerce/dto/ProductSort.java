@@ -0,0 +1,30 @@
+package com.aureumpicks.ecommerce.dto;
+
+public enum ProductSort {
+    ID("id"),
+    PRICE("price"),
+    RATING("rating"),
+    CREATED_AT("createdAt");
+
+    private final String property;
+
+    ProductSort(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public static ProductSort from(String value) {
+        if (value == null || value.isBlank()) {
+            return ID;
+        }
+        for (ProductSort sort : values()) {
+            if (sort.name().equalsIgnoreCase(value) || sort.property.equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        throw new RuntimeException("Unsupported sort: " + value);
+    }
+}
@@ -0,0 +1,29 @@
+package com.aureumpicks.ecommerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Lightweight list row: everything a product card needs, without the TEXT description
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummary {
+
+    private Long id;
+    private String name;
+    private BigDecimal price;
+    private String category;
+    private String imageUrl;
+    private Double rating;
+    private Integer stock;
+    private LocalDateTime createdAt;
+
+    // Only for list validators (ETag, Last-Modified), not part of the card
+    @JsonIgnore
+    private LocalDateTime updatedAt;
+}
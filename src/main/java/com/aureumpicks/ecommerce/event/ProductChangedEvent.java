@@ -0,0 +1,21 @@
+package com.aureumpicks.ecommerce.event;
+
+import com.aureumpicks.ecommerce.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+// Published by ProductService after every catalog write so in-memory views can update incrementally
+@Data
+@AllArgsConstructor
+public class ProductChangedEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private Type type;
+    private Long productId;
+    private Product product;          // state after the write, null for DELETED
+    private String previousCategory;  // category before the write, null for CREATED
+    private BigDecimal previousPrice; // price before the write, null for CREATED
+}
@@ -0,0 +1,14 @@
+package com.aureumpicks.ecommerce.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Published by StockReservationService after it writes committed sales back to products.stock, so views
+// built from the product row (encoded responses, catalog validators) drop their copies
+@Data
+@AllArgsConstructor
+public class ProductStockFlushedEvent {
+
+    private Long productId;
+    private String category;
+}
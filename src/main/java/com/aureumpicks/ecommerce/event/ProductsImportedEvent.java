@@ -0,0 +1,17 @@
+package com.aureumpicks.ecommerce.event;
+
+import com.aureumpicks.ecommerce.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+// Published once per committed bulk import chunk, so listeners react per chunk rather than per row
+@Data
+@AllArgsConstructor
+public class ProductsImportedEvent {
+
+    private List<Product> products;                // state after the write
+    private Map<Long, String> previousCategories;  // category before the write, only for updated products
+}
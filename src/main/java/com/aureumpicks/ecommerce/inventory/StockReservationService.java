@@ -0,0 +1,399 @@
+package com.aureumpicks.ecommerce.inventory;
+
+import com.aureumpicks.ecommerce.config.CacheConfig;
+import com.aureumpicks.ecommerce.event.ProductChangedEvent;
+import com.aureumpicks.ecommerce.event.ProductStockFlushedEvent;
+import com.aureumpicks.ecommerce.event.ProductsImportedEvent;
+import com.aureumpicks.ecommerce.model.Product;
+import com.aureumpicks.ecommerce.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+// Time-limited stock holds for cart lines. Availability lives in memory (one StripedStockCounter per
+// product, seeded from products.stock); checkouts turn holds into pending decrements that a scheduled
+// flush writes back with conditional updates, so the database never goes below zero.
+//
+// Holds are per (user, product) and are not persisted: after a restart every unit is available again and
+// the next cart write or checkout re-reserves it.
+@Service
+public class StockReservationService {
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationService.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.inventory.reservations.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.inventory.hold-ttl-ms:900000}")
+    private long holdTtlMs;
+
+    // 0 picks the next power of two >= available cores
+    @Value("${app.inventory.stripes:0}")
+    private int configuredStripes;
+
+    private int stripes;
+
+    private final Map<Long, StripedStockCounter> counters = new ConcurrentHashMap<>();
+    // userId -> productId -> hold
+    private final Map<Long, Map<Long, Hold>> holdsByUser = new ConcurrentHashMap<>();
+
+    private final AtomicLong expiredHolds = new AtomicLong();
+    private final AtomicLong refusedReservations = new AtomicLong();
+    private final AtomicLong flushedUnits = new AtomicLong();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @PostConstruct
+    public void init() {
+        int wanted = configuredStripes > 0 ? configuredStripes : Runtime.getRuntime().availableProcessors();
+        stripes = Integer.highestOneBit(Math.max(1, Math.min(wanted, 64)) * 2 - 1);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Adds quantity to the user's hold on the product; false if there isn't enough unheld stock
+    public boolean reserve(Long userId, Long productId, int quantity) {
+        if (!enabled || quantity <= 0) {
+            return true;
+        }
+        StripedStockCounter counter = counter(productId);
+        if (!counter.tryTake(quantity)) {
+            refusedReservations.incrementAndGet();
+            return false;
+        }
+        addToHold(userId, productId, quantity);
+        releaseOnRollback(userId, productId, quantity);
+        return true;
+    }
+
+    // Starts tracking products the caller just loaded from the database, saving a stock query for each
+    public void seed(Collection<Product> products) {
+        if (!enabled) {
+            return;
+        }
+        for (Product product : products) {
+            counters.computeIfAbsent(product.getId(), id -> new StripedStockCounter(stripes, product.getStock()));
+        }
+    }
+
+    // Moves the hold to exactly quantity, reserving or releasing the difference
+    public boolean adjust(Long userId, Long productId, int quantity) {
+        if (!enabled) {
+            return true;
+        }
+        int held = heldQuantity(userId, productId);
+        if (quantity > held) {
+            return reserve(userId, productId, quantity - held);
+        }
+        release(userId, productId, held - quantity);
+        return true;
+    }
+
+    // Inside a transaction the units return only once it commits, so a rolled-back removal keeps its hold
+    public void release(Long userId, Long productId, int quantity) {
+        if (!enabled || quantity <= 0) {
+            return;
+        }
+        afterCommit(() -> releaseNow(userId, productId, quantity));
+    }
+
+    public void releaseAll(Long userId) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> {
+            Map<Long, Hold> holds = holdsByUser.remove(userId);
+            if (holds != null) {
+                holds.forEach((productId, hold) -> counter(productId).put(hold.quantity()));
+            }
+        });
+    }
+
+    private void releaseNow(Long userId, Long productId, int quantity) {
+        int[] released = new int[1];
+        updateHold(userId, productId, hold -> {
+            if (hold == null) {
+                return null;
+            }
+            released[0] = Math.min(quantity, hold.quantity());
+            return new Hold(hold.quantity() - released[0], hold.expiresAt());
+        });
+        if (released[0] > 0) {
+            counter(productId).put(released[0]);
+        }
+    }
+
+    // Checkout: makes sure the user holds every quantity (topping up lines whose hold expired), then
+    // converts the holds into pending stock decrements once the surrounding transaction commits.
+    // Throws if any product is short; nothing is taken in that case.
+    public void commit(Long userId, Map<Long, Integer> quantitiesByProduct) {
+        if (!enabled) {
+            return;
+        }
+        Map<Long, Integer> toppedUp = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> line : quantitiesByProduct.entrySet()) {
+            int shortfall = line.getValue() - heldQuantity(userId, line.getKey());
+            if (shortfall <= 0) {
+                continue;
+            }
+            if (!counter(line.getKey()).tryTake(shortfall)) {
+                refusedReservations.incrementAndGet();
+                toppedUp.forEach((productId, quantity) -> counter(productId).put(quantity));
+                throw new RuntimeException("Insufficient stock for product with id: " + line.getKey());
+            }
+            toppedUp.put(line.getKey(), shortfall);
+        }
+        toppedUp.forEach((productId, quantity) -> addToHold(userId, productId, quantity));
+
+        Runnable convert = () -> quantitiesByProduct.forEach((productId, quantity) -> {
+            int[] fromHold = new int[1];
+            updateHold(userId, productId, hold -> {
+                if (hold == null) {
+                    return null;
+                }
+                fromHold[0] = Math.min(quantity, hold.quantity());
+                return new Hold(hold.quantity() - fromHold[0], hold.expiresAt());
+            });
+            StripedStockCounter counter = counter(productId);
+            if (fromHold[0] < quantity) {
+                // The hold expired mid-checkout and its units went back; the flush's conditional update
+                // still keeps the database from going negative if they were taken again meanwhile
+                counter.tryTake(quantity - fromHold[0]);
+            }
+            counter.commit(quantity);
+        });
+        // On rollback the topped-up units stay held, matching the cart lines that still exist
+        afterCommit(convert);
+    }
+
+    // Units still available for new holds, or null if the product has no counter yet
+    public Long getAvailable(Long productId) {
+        StripedStockCounter counter = counters.get(productId);
+        return counter == null ? null : counter.available();
+    }
+
+    // Two overlapping flushes would both apply the same pending units. A lock rather than synchronized:
+    // the flush runs JDBC updates, and blocking inside a monitor pins a virtual thread to its carrier.
+    @Scheduled(fixedDelayString = "${app.inventory.flush-interval-ms:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            counters.forEach((productId, counter) -> {
+                long pending = counter.pendingCommit();
+                if (pending <= 0) {
+                    return;
+                }
+                try {
+                    if (productRepository.decrementStock(productId, (int) pending) == 1) {
+                        counter.flushed(pending);
+                        flushedUnits.addAndGet(pending);
+                    } else {
+                        // Stock was lowered underneath us (admin edit) or the product is gone: take what is
+                        // left, drop the rest of the commit and resync availability from the database
+                        int stock = productRepository.findStockById(productId).orElse(0);
+                        logger.error("Committed {} units of product {} but only {} remain in stock", pending, productId, stock);
+                        int applied = stock > 0 && productRepository.decrementStock(productId, stock) == 1 ? stock : 0;
+                        counter.flushed(pending);
+                        counter.rebase(stock - applied);
+                        flushedUnits.addAndGet(applied);
+                    }
+                    evictProduct(productId);
+                } catch (RuntimeException e) {
+                    logger.error("Failed to flush stock for product {}: {}", productId, e.getMessage());
+                }
+            });
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.sweep-interval-ms:5000}")
+    public void expireHolds() {
+        long now = System.currentTimeMillis();
+        holdsByUser.forEach((userId, holds) -> holds.forEach((productId, candidate) -> {
+            if (candidate.expiresAt() > now) {
+                return;
+            }
+            int[] expired = new int[1];
+            // Re-checked under the lock: a concurrent reserve may have extended it
+            updateHold(userId, productId, hold -> {
+                if (hold == null || hold.expiresAt() > now) {
+                    return hold;
+                }
+                expired[0] = hold.quantity();
+                return null;
+            });
+            if (expired[0] > 0) {
+                counter(productId).put(expired[0]);
+                expiredHolds.incrementAndGet();
+            }
+        }));
+    }
+
+    // Admin edits write products.stock directly; shift availability once the write commits
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        StripedStockCounter counter = counters.get(event.getProductId());
+        if (counter == null) {
+            return;
+        }
+        if (event.getType() == ProductChangedEvent.Type.DELETED) {
+            counters.remove(event.getProductId());
+            // Its cart lines are gone; expiring these holds later would recreate the counter
+            holdsByUser.keySet().forEach(userId -> updateHold(userId, event.getProductId(), hold -> null));
+        } else {
+            counter.rebase(event.getProduct().getStock());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        for (Product product : event.getProducts()) {
+            StripedStockCounter counter = counters.get(product.getId());
+            if (counter != null) {
+                counter.rebase(product.getStock());
+            }
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        long heldUnits = 0;
+        long holdCount = 0;
+        for (Map<Long, Hold> holds : holdsByUser.values()) {
+            for (Hold hold : holds.values()) {
+                heldUnits += hold.quantity();
+                holdCount++;
+            }
+        }
+        long pendingUnits = 0;
+        for (StripedStockCounter counter : counters.values()) {
+            pendingUnits += counter.pendingCommit();
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("stripes", stripes);
+        metrics.put("trackedProducts", counters.size());
+        metrics.put("activeHolds", holdCount);
+        metrics.put("heldUnits", heldUnits);
+        metrics.put("pendingCommitUnits", pendingUnits);
+        metrics.put("flushedUnits", flushedUnits.get());
+        metrics.put("expiredHolds", expiredHolds.get());
+        metrics.put("refusedReservations", refusedReservations.get());
+        return metrics;
+    }
+
+    private int heldQuantity(Long userId, Long productId) {
+        Map<Long, Hold> holds = holdsByUser.get(userId);
+        Hold hold = holds == null ? null : holds.get(productId);
+        return hold == null ? 0 : hold.quantity();
+    }
+
+    private void addToHold(Long userId, Long productId, int quantity) {
+        long expiresAt = expiry();
+        updateHold(userId, productId, hold ->
+                new Hold(hold == null ? quantity : hold.quantity() + quantity, expiresAt));
+    }
+
+    // All hold changes go through the user's entry so an emptied user map is never removed while another
+    // thread is adding to it. Returning null or a zero-quantity hold removes it.
+    private void updateHold(Long userId, Long productId, UnaryOperator<Hold> update) {
+        holdsByUser.compute(userId, (id, holds) -> {
+            Map<Long, Hold> userHolds = holds == null ? new ConcurrentHashMap<>() : holds;
+            Hold updated = update.apply(userHolds.get(productId));
+            if (updated == null || updated.quantity() <= 0) {
+                userHolds.remove(productId);
+            } else {
+                userHolds.put(productId, updated);
+            }
+            return userHolds.isEmpty() ? null : userHolds;
+        });
+    }
+
+    private StripedStockCounter counter(Long productId) {
+        StripedStockCounter counter = counters.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+        // Read before computeIfAbsent, which holds the map's bin monitor while its function runs; a racing
+        // thread's counter wins and this read is discarded
+        int stock = productRepository.findStockById(productId).orElse(0);
+        return counters.computeIfAbsent(productId, id -> new StripedStockCounter(stripes, stock));
+    }
+
+    // A cart write that rolls back must not keep the units it reserved
+    private void releaseOnRollback(Long userId, Long productId, int quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    releaseNow(userId, productId, quantity);
+                }
+            }
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private long expiry() {
+        return System.currentTimeMillis() + holdTtlMs;
+    }
+
+    // Every cached view that shows this product's stock: the detail page and its category list
+    private void evictProduct(Long productId) {
+        String category = productRepository.findCategoryById(productId).orElse(null);
+        evict(CacheConfig.PRODUCT_DETAILS, productId);
+        evict(CacheConfig.PRODUCTS_BY_CATEGORY, category);
+        eventPublisher.publishEvent(new ProductStockFlushedEvent(productId, category));
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+
+    private record Hold(int quantity, long expiresAt) {
+    }
+}
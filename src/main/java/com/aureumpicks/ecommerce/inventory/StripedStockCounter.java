@@ -0,0 +1,127 @@
+package com.aureumpicks.ecommerce.inventory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Units of one product still available for new holds, split across stripes so concurrent takes on a hot
+// SKU CAS different cache lines instead of one contended word. A take never drives a stripe below zero,
+// so the sum of successful takes can't exceed what was put in: no oversell, at worst a spurious refusal
+// while units are in flight between stripes.
+class StripedStockCounter {
+    // Stripes sit 8 longs (64 bytes) apart so neighbours don't share a cache line
+    private static final int PAD = 8;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+    // Units owed after stock was lowered below what the stripes held; repaid before stripes are refilled
+    private final AtomicLong deficit = new AtomicLong();
+    // Units committed by checkouts but not yet subtracted from products.stock
+    private final AtomicLong pendingCommit = new AtomicLong();
+    // products.stock as last read or written by us; guarded by this
+    private long databaseStock;
+
+    StripedStockCounter(int stripes, long databaseStock) {
+        this.cells = new AtomicLongArray(stripes * PAD);
+        this.mask = stripes - 1;
+        this.databaseStock = databaseStock;
+        put(databaseStock);
+    }
+
+    boolean tryTake(long quantity) {
+        int home = homeStripe();
+        // Fast path: the calling thread's own stripe covers it
+        if (takeFrom(home, quantity, true) == quantity) {
+            return true;
+        }
+        // Gather from every stripe; hand back what we got if the total falls short
+        long taken = 0;
+        for (int i = 0; i <= mask && taken < quantity; i++) {
+            taken += takeFrom((home + i) & mask, quantity - taken, false);
+        }
+        if (taken < quantity) {
+            put(taken);
+            return false;
+        }
+        return true;
+    }
+
+    void put(long quantity) {
+        long remaining = quantity;
+        while (remaining > 0) {
+            long owed = deficit.get();
+            if (owed == 0) {
+                break;
+            }
+            long repay = Math.min(owed, remaining);
+            if (deficit.compareAndSet(owed, owed - repay)) {
+                remaining -= repay;
+            }
+        }
+        if (remaining > 0) {
+            cells.getAndAdd(homeStripe() * PAD, remaining);
+        }
+    }
+
+    long available() {
+        long sum = 0;
+        for (int i = 0; i <= mask; i++) {
+            sum += cells.get(i * PAD);
+        }
+        return sum - deficit.get();
+    }
+
+    void commit(long quantity) {
+        pendingCommit.addAndGet(quantity);
+    }
+
+    long pendingCommit() {
+        return pendingCommit.get();
+    }
+
+    // Called after products.stock was decremented by quantity on our behalf
+    synchronized void flushed(long quantity) {
+        pendingCommit.addAndGet(-quantity);
+        databaseStock -= quantity;
+    }
+
+    // Someone else set products.stock (admin edit, failed flush); shift availability by the difference
+    synchronized void rebase(long newDatabaseStock) {
+        long delta = newDatabaseStock - databaseStock;
+        databaseStock = newDatabaseStock;
+        if (delta > 0) {
+            put(delta);
+        } else if (delta < 0) {
+            long owed = -delta;
+            for (int i = 0; i <= mask && owed > 0; i++) {
+                owed -= takeFrom(i, owed, false);
+            }
+            if (owed > 0) {
+                deficit.addAndGet(owed);
+            }
+        }
+    }
+
+    synchronized long databaseStock() {
+        return databaseStock;
+    }
+
+    // Takes up to quantity from one stripe (exactly quantity or nothing when allOrNothing); returns units taken
+    private long takeFrom(int stripe, long quantity, boolean allOrNothing) {
+        int index = stripe * PAD;
+        while (true) {
+            long current = cells.get(index);
+            if (current <= 0 || (allOrNothing && current < quantity)) {
+                return 0;
+            }
+            long take = Math.min(current, quantity);
+            if (cells.compareAndSet(index, current, current - take)) {
+                return take;
+            }
+        }
+    }
+
+    private int homeStripe() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
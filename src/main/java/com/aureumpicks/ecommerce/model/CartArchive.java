@@ -0,0 +1,41 @@
+package com.aureumpicks.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A cart line removed by the abandoned-cart purge, kept for reporting outside the hot carts table
+@Entity
+@Table(name = "cart_archives", indexes = {
+        @Index(name = "idx_cart_archives_user", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartArchive {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "cart_created_at")
+    private LocalDateTime cartCreatedAt;
+
+    @Column(name = "cart_updated_at")
+    private LocalDateTime cartUpdatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,38 @@
+package com.aureumpicks.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Running totals of a user's cart, adjusted in place by every cart write so badge reads are one row
+@Entity
+@Table(name = "cart_summaries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartSummary {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "line_count", nullable = false)
+    private Integer lineCount = 0;
+
+    @Column(name = "item_count", nullable = false)
+    private Integer itemCount = 0;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal subtotal = BigDecimal.ZERO;
+
+    // Bumped on every change; clients compare it to skip refetching an unchanged cart
+    @Column(nullable = false)
+    private Long version = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,19 @@
+package com.aureumpicks.ecommerce.model;
+
+// Each type renders email-templates/<templateName>[_<lang>].html inside the shared layout
+public enum EmailType {
+    VERIFICATION("verification"),
+    PASSWORD_RESET("password-reset"),
+    ORDER_CONFIRMATION("order-confirmation"),
+    SHIPPING_NOTIFICATION("shipping-notification");
+
+    private final String templateName;
+
+    EmailType(String templateName) {
+        this.templateName = templateName;
+    }
+
+    public String getTemplateName() {
+        return templateName;
+    }
+}
@@ -0,0 +1,7 @@
+package com.aureumpicks.ecommerce.model;
+
+// A user can hold one live code per purpose; a reset code never verifies an email and vice versa
+public enum OtpPurpose {
+    VERIFICATION,
+    PASSWORD_RESET
+}
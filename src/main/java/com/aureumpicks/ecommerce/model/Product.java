@@ -4,13 +4,20 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_price_id", columnList = "price, id"),
+        @Index(name = "idx_products_rating_id", columnList = "rating, id"),
+        @Index(name = "idx_products_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_products_updated_at", columnList = "updated_at"),
+        @Index(name = "uk_products_sku", columnList = "sku", unique = true)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,6 +26,10 @@ public class Product {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Supplier key that bulk imports upsert on; null for products added one at a time
+    @Column(length = 64)
+    private String sku;
+
     @Column(nullable = false)
     private String name;
 
@@ -38,7 +49,9 @@ public class Product {
     private String imageUrl;
 
     // FIXED: Removed scale parameter from Double
-    @Column
+    // Not null so rating-sorted pages seek on the (rating, id) index; older rows are backfilled at startup
+    @ColumnDefault("0")
+    @Column(nullable = false)
     private Double rating = 0.0;
 
     @CreationTimestamp
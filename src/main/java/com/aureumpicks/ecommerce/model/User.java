@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
@@ -27,11 +28,10 @@ public class User {
     @Column(name = "is_verified", nullable = false)  // is_verifed → is_verified
     private Boolean isVerified = false;  // isVerifed → isVerified
 
-    @Column(length = 6)
-    private String otp;
-
-    @Column(name = "otp_expiry")
-    private LocalDateTime otpExpiry;
+    // Embedded in every JWT; bumping it revokes all tokens issued before
+    @ColumnDefault("0")
+    @Column(name = "token_version", nullable = false)
+    private Integer tokenVersion = 0;
 
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
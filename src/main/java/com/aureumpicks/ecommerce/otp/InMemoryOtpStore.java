@@ -0,0 +1,89 @@
+package com.aureumpicks.ecommerce.otp;
+
+import com.aureumpicks.ecommerce.model.OtpPurpose;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Codes in a map, plus an expiry queue ordered by deadline so eviction only looks at codes that are actually
+// due instead of scanning them all. Single instance only: codes are lost on restart and not shared between
+// nodes. A replaced or consumed code stays in the queue until its deadline and is then dropped without
+// touching the map, because the map no longer holds that exact entry.
+@Component
+public class InMemoryOtpStore implements OtpStore {
+    private final Map<Key, Entry> codes = new ConcurrentHashMap<>();
+    private final PriorityQueue<Entry> expiryQueue = new PriorityQueue<>(Comparator.comparing(entry -> entry.expiresAt));
+    private final ReentrantLock expiryLock = new ReentrantLock();
+
+    @Override
+    public void put(Long userId, OtpPurpose purpose, String code, LocalDateTime expiresAt) {
+        Entry entry = new Entry(new Key(userId, purpose), code, expiresAt);
+        codes.put(entry.key, entry);
+        expiryLock.lock();
+        try {
+            expiryQueue.add(entry);
+        } finally {
+            expiryLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean consume(Long userId, OtpPurpose purpose, String code, int maxAttempts, LocalDateTime now) {
+        Key key = new Key(userId, purpose);
+        Entry entry = codes.get(key);
+        if (entry == null) {
+            return false;
+        }
+        if (!entry.expiresAt.isAfter(now) || entry.attempts.incrementAndGet() > maxAttempts) {
+            codes.remove(key, entry);
+            return false;
+        }
+        // remove(key, entry) succeeds for exactly one caller, so a code can't be used twice
+        return entry.code.equals(code) && codes.remove(key, entry);
+    }
+
+    @Override
+    public int evictExpired(LocalDateTime now) {
+        int removed = 0;
+        expiryLock.lock();
+        try {
+            Entry head;
+            while ((head = expiryQueue.peek()) != null && !head.expiresAt.isAfter(now)) {
+                expiryQueue.poll();
+                if (codes.remove(head.key, head)) {
+                    removed++;
+                }
+            }
+        } finally {
+            expiryLock.unlock();
+        }
+        return removed;
+    }
+
+    @Override
+    public long size() {
+        return codes.size();
+    }
+
+    private record Key(Long userId, OtpPurpose purpose) {
+    }
+
+    private static final class Entry {
+        final Key key;
+        final String code;
+        final LocalDateTime expiresAt;
+        final AtomicInteger attempts = new AtomicInteger();
+
+        Entry(Key key, String code, LocalDateTime expiresAt) {
+            this.key = key;
+            this.code = code;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.aureumpicks.ecommerce.otp;
+
+import com.aureumpicks.ecommerce.model.OtpPurpose;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+// Codes in the narrow otp_codes table, so issuing or checking one never rewrites the users row. Each call is
+// a couple of single-row statements on the (user_id, purpose) key; expiry is one ranged delete on expires_at.
+@Component
+public class JdbcOtpStore implements OtpStore {
+    private static final String REPLACE_CODE =
+            "update otp_codes set code = ?, attempts = 0, expires_at = ?, created_at = ? where user_id = ? and purpose = ?";
+    private static final String INSERT_CODE =
+            "insert into otp_codes (user_id, purpose, code, attempts, expires_at, created_at) values (?, ?, ?, 0, ?, ?)";
+    private static final String COUNT_ATTEMPT =
+            "update otp_codes set attempts = attempts + 1"
+                    + " where user_id = ? and purpose = ? and expires_at > ? and attempts < ?";
+    private static final String DELETE_MATCHING =
+            "delete from otp_codes where user_id = ? and purpose = ? and code = ? and expires_at > ?";
+    private static final String DELETE_EXPIRED = "delete from otp_codes where expires_at <= ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Same upsert as cart lines: if a concurrent put inserted first, the unique key rejects ours and we update
+    @Override
+    public void put(Long userId, OtpPurpose purpose, String code, LocalDateTime expiresAt) {
+        Timestamp expires = Timestamp.valueOf(expiresAt);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (jdbcTemplate.update(REPLACE_CODE, code, expires, now, userId, purpose.name()) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(INSERT_CODE, userId, purpose.name(), code, expires, now);
+        } catch (DuplicateKeyException e) {
+            jdbcTemplate.update(REPLACE_CODE, code, expires, now, userId, purpose.name());
+        }
+    }
+
+    // The attempt is counted before the code is compared, so parallel guesses can't exceed maxAttempts; of
+    // two right guesses only the one whose delete hits the row succeeds
+    @Override
+    public boolean consume(Long userId, OtpPurpose purpose, String code, int maxAttempts, LocalDateTime now) {
+        Timestamp at = Timestamp.valueOf(now);
+        if (jdbcTemplate.update(COUNT_ATTEMPT, userId, purpose.name(), at, maxAttempts) == 0) {
+            return false;
+        }
+        return jdbcTemplate.update(DELETE_MATCHING, userId, purpose.name(), code, at) == 1;
+    }
+
+    @Override
+    public int evictExpired(LocalDateTime now) {
+        return jdbcTemplate.update(DELETE_EXPIRED, Timestamp.valueOf(now));
+    }
+
+    @Override
+    public long size() {
+        Long count = jdbcTemplate.queryForObject("select count(*) from otp_codes", Long.class);
+        return count == null ? 0 : count;
+    }
+}
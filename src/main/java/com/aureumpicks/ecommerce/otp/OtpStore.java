@@ -0,0 +1,22 @@
+package com.aureumpicks.ecommerce.otp;
+
+import com.aureumpicks.ecommerce.model.OtpPurpose;
+
+import java.time.LocalDateTime;
+
+// Holds at most one live code per user and purpose. Expired codes are never accepted, even before
+// evictExpired has removed them.
+public interface OtpStore {
+
+    // Replaces any earlier code for the same user and purpose and resets its attempt count
+    void put(Long userId, OtpPurpose purpose, String code, LocalDateTime expiresAt);
+
+    // Every call counts as an attempt. True only for the one call that presents the right code before expiry
+    // and within maxAttempts; the code is then gone. After maxAttempts the code is dead until a new one is put.
+    boolean consume(Long userId, OtpPurpose purpose, String code, int maxAttempts, LocalDateTime now);
+
+    // Removes every code that expired at or before now; returns how many were removed
+    int evictExpired(LocalDateTime now);
+
+    long size();
+}
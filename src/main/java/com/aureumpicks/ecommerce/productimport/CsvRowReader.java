@@ -0,0 +1,135 @@
+package com.aureumpicks.ecommerce.productimport;
+
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// RFC 4180 CSV with a header row: quoted fields may hold commas, doubled quotes and line breaks. A record
+// longer than maxRecordChars is skipped to its end without being kept, so one bad row can't buffer the file.
+final class CsvRowReader implements RowReader {
+    private final PushbackReader in;
+    private final int maxRecordChars;
+    private final String[] header;
+    private long nextLine = 1;
+    private long recordLine;
+
+    CsvRowReader(Reader in, int maxRecordChars, List<String> requiredColumns) throws IOException {
+        this.in = new PushbackReader(in, 1);
+        this.maxRecordChars = maxRecordChars;
+        // Spreadsheet exports often start with a byte order mark
+        int first = this.in.read();
+        if (first != '\uFEFF' && first != -1) {
+            this.in.unread(first);
+        }
+        List<String> names = readRecord();
+        if (names == null) {
+            throw new IllegalArgumentException("CSV input is empty");
+        }
+        header = names.stream().map(RowReader::normalize).toArray(String[]::new);
+        // Every row would be rejected for the same reason; fail once instead
+        for (String column : requiredColumns) {
+            if (!List.of(header).contains(column)) {
+                throw new IllegalArgumentException("CSV header has no " + column + " column");
+            }
+        }
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+        List<String> fields;
+        do {
+            fields = readRecord();
+        } while (fields != null && header.length > 1 && fields.size() == 1 && fields.get(0).isEmpty());
+        if (fields == null) {
+            return null;
+        }
+        if (fields.size() != header.length) {
+            throw new IllegalArgumentException("Expected " + header.length + " fields, found " + fields.size());
+        }
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            row.put(header[i], fields.get(i));
+        }
+        return row;
+    }
+
+    @Override
+    public long line() {
+        return recordLine;
+    }
+
+    private List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = nextLine - (c == '\n' ? 1 : 0);
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean tooLong = false;
+        int length = 0;
+        while (c != -1) {
+            if (++length > maxRecordChars && !tooLong) {
+                tooLong = true;
+                fields.clear();
+                field.setLength(0);
+            }
+            if (quoted) {
+                if (c == '"') {
+                    int next = read();
+                    if (next != '"') {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                }
+                append(field, c, tooLong);
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                if (!tooLong) {
+                    fields.add(field.toString());
+                }
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c == '\r') {
+                int next = read();
+                if (next != '\n' && next != -1) {
+                    in.unread(next);
+                }
+                break;
+            } else {
+                append(field, c, tooLong);
+            }
+            c = read();
+        }
+        if (tooLong) {
+            throw new IllegalArgumentException("Record is longer than " + maxRecordChars + " characters");
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Quoted field is not closed before the end of the input");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static void append(StringBuilder field, int c, boolean tooLong) {
+        if (!tooLong) {
+            field.append((char) c);
+        }
+    }
+
+    private int read() throws IOException {
+        int c = in.read();
+        if (c == '\n') {
+            nextLine++;
+        }
+        return c;
+    }
+}
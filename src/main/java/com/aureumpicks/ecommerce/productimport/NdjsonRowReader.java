@@ -0,0 +1,88 @@
+package com.aureumpicks.ecommerce.productimport;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+// One JSON object per line. Lines are read with a length cap for the same reason as CsvRowReader's.
+final class NdjsonRowReader implements RowReader {
+    private final Reader in;
+    private final ObjectMapper objectMapper;
+    private final int maxRecordChars;
+    private final StringBuilder buffer = new StringBuilder();
+    private long nextLine = 1;
+    private long recordLine;
+
+    NdjsonRowReader(Reader in, ObjectMapper objectMapper, int maxRecordChars) {
+        this.in = in;
+        this.objectMapper = objectMapper;
+        this.maxRecordChars = maxRecordChars;
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+        String line;
+        do {
+            line = readLine();
+        } while (line != null && line.isBlank());
+        if (line == null) {
+            return null;
+        }
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JacksonException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        Map<String, String> row = new HashMap<>();
+        for (Map.Entry<String, JsonNode> field : node.properties()) {
+            JsonNode value = field.getValue();
+            if (value.isNull()) {
+                continue;
+            }
+            if (!value.isValueNode()) {
+                throw new IllegalArgumentException("Field " + field.getKey() + " must be a string or number");
+            }
+            row.put(RowReader.normalize(field.getKey()), value.asString());
+        }
+        return row;
+    }
+
+    @Override
+    public long line() {
+        return recordLine;
+    }
+
+    private String readLine() throws IOException {
+        buffer.setLength(0);
+        recordLine = nextLine;
+        boolean tooLong = false;
+        int c = in.read();
+        if (c == -1) {
+            return null;
+        }
+        while (c != -1 && c != '\n') {
+            if (buffer.length() >= maxRecordChars) {
+                tooLong = true;
+                buffer.setLength(0);
+            }
+            if (!tooLong) {
+                buffer.append((char) c);
+            }
+            c = in.read();
+        }
+        nextLine++;
+        if (tooLong) {
+            throw new IllegalArgumentException("Record is longer than " + maxRecordChars + " characters");
+        }
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,354 @@
+package com.aureumpicks.ecommerce.productimport;
+
+import com.aureumpicks.ecommerce.dto.ProductImportError;
+import com.aureumpicks.ecommerce.dto.ProductImportStatus;
+import com.aureumpicks.ecommerce.model.Product;
+import com.aureumpicks.ecommerce.repository.ProductRepository;
+import com.aureumpicks.ecommerce.service.CartSummaryService;
+import com.aureumpicks.ecommerce.service.ProductService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads supplier feeds (CSV with a header row, or NDJSON) straight off the request stream. Rows are parsed
+ * and validated one at a time, then written in chunks: each chunk is one transaction with one batched UPDATE
+ * for skus already in the catalog and one batched INSERT for new ones, after which caches and in-memory
+ * indexes get one event for the whole chunk. Memory stays at one chunk plus the capped error list no matter
+ * how large the feed is. Rejected rows are reported with their line and don't stop the import.
+ */
+@Service
+public class ProductImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final BigDecimal MAX_PRICE = new BigDecimal("100000000"); // DECIMAL(10,2)
+    private static final long PROGRESS_LOG_ROWS = 50_000;
+    private static final List<String> REQUIRED_FIELDS = List.of("sku", "name", "price");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CartSummaryService cartSummaryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.import.max-record-chars:65536}")
+    private int maxRecordChars;
+
+    // Rejected rows listed in the status; the count keeps going past it
+    @Value("${app.import.max-errors:1000}")
+    private int maxErrors;
+
+    @Value("${app.import.max-concurrent:1}")
+    private int maxConcurrent;
+
+    // Finished imports kept for GET /api/products/import
+    @Value("${app.import.history:20}")
+    private int history;
+
+    private TransactionTemplate transactionTemplate;
+    private Semaphore permits;
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        permits = new Semaphore(maxConcurrent);
+    }
+
+    // "csv" or "ndjson" from ?format=, else from the Content-Type; null when neither says
+    public static String resolveFormat(String format, String contentType) {
+        String value = format != null ? format : contentType;
+        if (value == null) {
+            return null;
+        }
+        value = value.toLowerCase(Locale.ROOT);
+        if (value.contains("csv")) {
+            return "csv";
+        }
+        if (value.contains("ndjson") || value.contains("jsonl") || value.contains("json")) {
+            return "ndjson";
+        }
+        return null;
+    }
+
+    /**
+     * Reads the whole stream and returns the final status. Fails fast with IllegalStateException when
+     * max-concurrent imports are already running.
+     */
+    public ProductImportStatus importProducts(InputStream input, String format) {
+        if (!permits.tryAcquire()) {
+            throw new IllegalStateException("Another import is already running");
+        }
+        Job job = new Job(UUID.randomUUID().toString(), format);
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+        }
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            RowReader rows = "csv".equals(format)
+                    ? new CsvRowReader(reader, maxRecordChars, REQUIRED_FIELDS)
+                    : new NdjsonRowReader(reader, objectMapper, maxRecordChars);
+            run(job, rows);
+            job.finish("COMPLETED", null);
+            logger.info("Product import {} completed: {} rows, {} inserted, {} updated, {} rejected", job.id,
+                    job.rowsRead.get(), job.inserted.get(), job.updated.get(), job.rejected.get());
+        } catch (IOException | RuntimeException e) {
+            // Chunks written before the failure stay committed; the status says how far it got
+            job.finish("FAILED", e.getMessage());
+            logger.warn("Product import {} failed after {} rows: {}", job.id, job.rowsRead.get(), e.getMessage());
+        } finally {
+            permits.release();
+            trimHistory();
+        }
+        return job.snapshot();
+    }
+
+    public ProductImportStatus getStatus(String id) {
+        synchronized (jobs) {
+            Job job = jobs.get(id);
+            return job == null ? null : job.snapshot();
+        }
+    }
+
+    // Running and recently finished imports, oldest first
+    public List<ProductImportStatus> getRecent() {
+        synchronized (jobs) {
+            List<ProductImportStatus> statuses = new ArrayList<>(jobs.size());
+            for (Job job : jobs.values()) {
+                statuses.add(job.snapshot());
+            }
+            return statuses;
+        }
+    }
+
+    private void run(Job job, RowReader rows) throws IOException {
+        Map<String, Product> chunk = new LinkedHashMap<>();
+        while (true) {
+            Map<String, String> row;
+            try {
+                row = rows.next();
+            } catch (IllegalArgumentException e) {
+                // The record couldn't be parsed at all
+                job.rowsRead.incrementAndGet();
+                job.reject(rows.line(), null, e.getMessage(), maxErrors);
+                continue;
+            }
+            if (row == null) {
+                break;
+            }
+            job.rowsRead.incrementAndGet();
+            Product product;
+            try {
+                product = toProduct(row);
+            } catch (IllegalArgumentException e) {
+                job.reject(rows.line(), row.get("sku"), e.getMessage(), maxErrors);
+                continue;
+            }
+            // A sku repeated within the feed: the later row wins, in feed order
+            if (chunk.containsKey(product.getSku())) {
+                flush(job, chunk);
+            }
+            chunk.put(product.getSku(), product);
+            if (chunk.size() >= chunkSize) {
+                flush(job, chunk);
+            }
+            if (job.rowsRead.get() % PROGRESS_LOG_ROWS == 0) {
+                logger.info("Product import {}: {} rows read, {} rejected", job.id, job.rowsRead.get(),
+                        job.rejected.get());
+            }
+        }
+        flush(job, chunk);
+    }
+
+    private void flush(Job job, Map<String, Product> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Product> rows = new ArrayList<>(chunk.values());
+        chunk.clear();
+        Written written;
+        try {
+            written = write(rows);
+        } catch (DuplicateKeyException e) {
+            // A concurrent writer inserted one of these skus between our lookup and insert; the chunk was
+            // rolled back, and on the retry those rows are updates
+            written = write(rows);
+        }
+        productService.catalogImported(written.products, written.previousCategories);
+        job.updated.addAndGet(written.previousCategories.size());
+        job.inserted.addAndGet(rows.size() - written.previousCategories.size());
+    }
+
+    // Cart subtotals move with the price in the same transaction, as ProductService's updates do per row
+    private Written write(List<Product> rows) {
+        return transactionTemplate.execute(status -> {
+            Map<Long, Product> previous = productRepository.upsertBySku(rows);
+            List<Product> stored = productRepository.findBySkuIn(rows.stream().map(Product::getSku).toList());
+            Map<Long, String> previousCategories = new HashMap<>();
+            for (Product product : stored) {
+                Product before = previous.get(product.getId());
+                if (before == null) {
+                    continue;
+                }
+                previousCategories.put(product.getId(), before.getCategory());
+                cartSummaryService.applyPriceChange(product.getId(), product.getPrice().subtract(before.getPrice()));
+            }
+            return new Written(stored, previousCategories);
+        });
+    }
+
+    // Optional fields left out stay null, so an update keeps the stored value and an insert gets the default
+    private Product toProduct(Map<String, String> row) {
+        Product product = new Product();
+        product.setSku(text(row, "sku", 64, true));
+        product.setName(text(row, "name", 255, true));
+        product.setDescription(text(row, "description", Integer.MAX_VALUE, false));
+        product.setCategory(text(row, "category", 100, false));
+        product.setImageUrl(text(row, "imageurl", 500, false));
+
+        String price = text(row, "price", 32, true);
+        try {
+            BigDecimal value = new BigDecimal(price);
+            if (value.signum() < 0 || value.compareTo(MAX_PRICE) >= 0 || value.stripTrailingZeros().scale() > 2) {
+                throw new IllegalArgumentException("price must be between 0 and 99999999.99 with at most 2 decimals");
+            }
+            product.setPrice(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("price is not a number: " + price);
+        }
+
+        String stock = text(row, "stock", 32, false);
+        try {
+            product.setStock(stock == null ? null : Integer.valueOf(stock));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("stock is not a whole number: " + stock);
+        }
+        if (product.getStock() != null && product.getStock() < 0) {
+            throw new IllegalArgumentException("stock must not be negative");
+        }
+
+        String rating = text(row, "rating", 32, false);
+        try {
+            product.setRating(rating == null ? null : Double.valueOf(rating));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("rating is not a number: " + rating);
+        }
+        if (product.getRating() != null && !(product.getRating() >= 0 && product.getRating() <= 5)) {
+            throw new IllegalArgumentException("rating must be between 0 and 5");
+        }
+        return product;
+    }
+
+    private static String text(Map<String, String> row, String field, int maxLength, boolean required) {
+        String value = row.get(field);
+        value = value == null ? null : value.trim();
+        if (value == null || value.isEmpty()) {
+            if (required) {
+                throw new IllegalArgumentException(field + " is required");
+            }
+            return null;
+        }
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(field + " is longer than " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    private void trimHistory() {
+        synchronized (jobs) {
+            Iterator<Job> iterator = jobs.values().iterator();
+            int excess = jobs.size() - history;
+            while (excess > 0 && iterator.hasNext()) {
+                if (!"RUNNING".equals(iterator.next().state)) {
+                    iterator.remove();
+                    excess--;
+                }
+            }
+        }
+    }
+
+    private record Written(List<Product> products, Map<Long, String> previousCategories) {
+    }
+
+    // Counters are written by the importing thread and read by status polls
+    private static final class Job {
+        final String id;
+        final String format;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final AtomicLong rowsRead = new AtomicLong();
+        final AtomicLong inserted = new AtomicLong();
+        final AtomicLong updated = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final List<ProductImportError> errors = new ArrayList<>();
+        volatile String state = "RUNNING";
+        volatile LocalDateTime finishedAt;
+        volatile String message;
+
+        Job(String id, String format) {
+            this.id = id;
+            this.format = format;
+        }
+
+        void reject(long line, String sku, String reason, int maxErrors) {
+            rejected.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < maxErrors) {
+                    errors.add(new ProductImportError(line, sku, reason));
+                }
+            }
+        }
+
+        void finish(String state, String message) {
+            this.message = message;
+            this.finishedAt = LocalDateTime.now();
+            this.state = state;
+        }
+
+        ProductImportStatus snapshot() {
+            List<ProductImportError> listed;
+            synchronized (errors) {
+                listed = new ArrayList<>(errors);
+            }
+            long rejectedRows = rejected.get();
+            return new ProductImportStatus(id, format, state, startedAt, finishedAt, rowsRead.get(), inserted.get(),
+                    updated.get(), rejectedRows, listed, rejectedRows > listed.size(), message);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.aureumpicks.ecommerce.productimport;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+
+// Pulls one record at a time off an import stream, so only the current record is ever held in memory
+interface RowReader {
+
+    // Next record keyed by normalized field name, or null at the end of the input. A malformed record is
+    // consumed and reported as IllegalArgumentException; the next call continues after it.
+    Map<String, String> next() throws IOException;
+
+    // Line the record last returned (or rejected) starts on
+    long line();
+
+    // "image_url", "imageUrl" and "Image-URL" all name the same field
+    static String normalize(String name) {
+        return name.trim().replace("_", "").replace("-", "").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,264 @@
+package com.aureumpicks.ecommerce.ratelimit;
+
+import com.aureumpicks.ecommerce.dto.MessageResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throttles the unauthenticated auth endpoints before any database, BCrypt or Brevo work happens. Each
+ * request is counted against its client IP and, when the JSON body names one, the email it targets; either
+ * limit being exceeded answers 429 with Retry-After. Runs ahead of JwtAuthenticationFilter in the security
+ * chain.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    // Bodies of these endpoints are a few fields; anything larger is limited by IP only
+    private static final int MAX_BODY_BYTES = 8 * 1024;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rate-limit.max-keys:100000}")
+    private int maxKeys;
+
+    @Value("${app.rate-limit.stripes:64}")
+    private int stripes;
+
+    // Password checks: login
+    @Value("${app.rate-limit.login.per-ip:30}")
+    private int loginPerIp;
+
+    @Value("${app.rate-limit.login.per-email:5}")
+    private int loginPerEmail;
+
+    @Value("${app.rate-limit.login.window-seconds:60}")
+    private long loginWindowSeconds;
+
+    // OTP guesses: verify-email, reset-password
+    @Value("${app.rate-limit.otp.per-ip:30}")
+    private int otpPerIp;
+
+    @Value("${app.rate-limit.otp.per-email:5}")
+    private int otpPerEmail;
+
+    @Value("${app.rate-limit.otp.window-seconds:600}")
+    private long otpWindowSeconds;
+
+    // Requests that send an email: signup, resend-otp, forgot-password
+    @Value("${app.rate-limit.email.per-ip:10}")
+    private int emailPerIp;
+
+    @Value("${app.rate-limit.email.per-email:3}")
+    private int emailPerEmail;
+
+    @Value("${app.rate-limit.email.window-seconds:600}")
+    private long emailWindowSeconds;
+
+    private SlidingWindowRateLimiter limiter;
+    private Map<String, Rule> rulesByPath;
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder checkNanos = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        limiter = new SlidingWindowRateLimiter(stripes, maxKeys);
+        Rule login = new Rule("login", loginPerIp, loginPerEmail, TimeUnit.SECONDS.toMillis(loginWindowSeconds));
+        Rule otp = new Rule("otp", otpPerIp, otpPerEmail, TimeUnit.SECONDS.toMillis(otpWindowSeconds));
+        Rule email = new Rule("email", emailPerIp, emailPerEmail, TimeUnit.SECONDS.toMillis(emailWindowSeconds));
+        rulesByPath = Map.of(
+                "/api/auth/login", login,
+                "/api/auth/verify-email", otp,
+                "/api/auth/reset-password", otp,
+                "/api/auth/signup", email,
+                "/api/auth/resend-otp", email,
+                "/api/auth/forgot-password", email);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod()) || !rulesByPath.containsKey(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Rule rule = rulesByPath.get(request.getRequestURI());
+        CachedBodyRequest cached = CachedBodyRequest.wrap(request);
+        String email = cached == null ? null : extractEmail(cached.body);
+
+        long started = System.nanoTime();
+        long now = System.currentTimeMillis();
+        // Behind a proxy, server.forward-headers-strategy makes getRemoteAddr the client address
+        long retryAfter = limiter.tryAcquire(rule.name + ":ip:" + request.getRemoteAddr(), rule.perIp, rule.windowMillis, now);
+        if (retryAfter == 0 && email != null) {
+            retryAfter = limiter.tryAcquire(rule.name + ":email:" + email, rule.perEmail, rule.windowMillis, now);
+        }
+        checkNanos.add(System.nanoTime() - started);
+        checks.increment();
+
+        if (retryAfter > 0) {
+            rule.rejected.increment();
+            reject(response, retryAfter);
+            return;
+        }
+        rule.allowed.increment();
+        filterChain.doFilter(cached == null ? request : cached, response);
+    }
+
+    // Keys idle for a full window carry no weight any more
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdleKeys() {
+        long longestWindow = rulesByPath.values().stream().mapToLong(rule -> rule.windowMillis).max().orElse(0);
+        limiter.evictIdle(System.currentTimeMillis() - 2 * longestWindow);
+    }
+
+    private String extractEmail(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode email = objectMapper.readTree(body).get("email");
+            return email != null && email.isString() ? email.asString().trim().toLowerCase(Locale.ROOT) : null;
+        } catch (RuntimeException e) {
+            // Malformed JSON is rejected by the controller; it still counts against the IP
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterMillis) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (retryAfterMillis + 999) / 1000)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new MessageResponse("Too many attempts, please try again later"));
+    }
+
+    public Map<String, Object> getMetrics() {
+        long checkCount = checks.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("trackedKeys", limiter.size());
+        metrics.put("maxKeys", maxKeys);
+        metrics.put("evictedKeys", limiter.evictions());
+        metrics.put("averageCheckMicros", checkCount == 0 ? 0.0 : checkNanos.sum() / 1000.0 / checkCount);
+        Map<String, Object> byRule = new LinkedHashMap<>();
+        for (Rule rule : rulesByPath.values()) {
+            Map<String, Object> counts = new LinkedHashMap<>();
+            counts.put("allowed", rule.allowed.sum());
+            counts.put("rejected", rule.rejected.sum());
+            byRule.putIfAbsent(rule.name, counts);
+        }
+        metrics.put("rules", byRule);
+        return metrics;
+    }
+
+    private static final class Rule {
+        final String name;
+        final int perIp;
+        final int perEmail;
+        final long windowMillis;
+        final LongAdder allowed = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+
+        Rule(String name, int perIp, int perEmail, long windowMillis) {
+            this.name = name;
+            this.perIp = perIp;
+            this.perEmail = perEmail;
+            this.windowMillis = windowMillis;
+        }
+    }
+
+    // Lets the filter read the JSON body and still hand the controller an unread stream
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        static CachedBodyRequest wrap(HttpServletRequest request) throws IOException {
+            // Unknown (chunked) or large bodies are left unread for the controller
+            int length = request.getContentLength();
+            if (length < 0 || length > MAX_BODY_BYTES || request.getContentType() == null
+                    || !request.getContentType().startsWith(MediaType.APPLICATION_JSON_VALUE)) {
+                return null;
+            }
+            return new CachedBodyRequest(request, request.getInputStream().readNBytes(length));
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The body is already in memory, so it is all available, and fully read, right away
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.aureumpicks.ecommerce.ratelimit;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Sliding-window counters for many keys. The estimate for a key is this window's count plus last window's
+// count weighted by how much of it still overlaps the sliding window, so each key costs two counts and
+// two timestamps. Keys are spread over independently locked stripes; each stripe is an access-ordered map
+// capped at its share of maxKeys, so the least recently seen key is dropped first when full and idle keys
+// sit at the head where a sweep can stop at the first live one.
+class SlidingWindowRateLimiter {
+    private final Stripe[] stripes;
+    private final int mask;
+    private final int maxKeysPerStripe;
+    private final LongAdder evictions = new LongAdder();
+
+    SlidingWindowRateLimiter(int stripeCount, int maxKeys) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount) * 2 - 1);
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.mask = size - 1;
+        this.maxKeysPerStripe = Math.max(1, maxKeys / size);
+    }
+
+    // Records one hit and returns 0, or returns the milliseconds until a hit would be allowed again
+    long tryAcquire(String key, int limit, long windowMillis, long nowMillis) {
+        Stripe stripe = stripes[spread(key.hashCode()) & mask];
+        stripe.lock.lock();
+        try {
+            Window window = stripe.windows.get(key);
+            if (window == null) {
+                window = new Window();
+                stripe.windows.put(key, window);
+            }
+            window.roll(nowMillis, windowMillis);
+            window.lastSeen = nowMillis;
+            double previousWeight = 1.0 - (double) (nowMillis - window.start) / windowMillis;
+            double estimate = window.previous * previousWeight + window.current;
+            if (estimate + 1 > limit) {
+                return window.retryAfter(limit, nowMillis, windowMillis);
+            }
+            window.current++;
+            return 0;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // Drops keys not hit since the cutoff; returns how many were removed
+    int evictIdle(long idleSinceMillis) {
+        int removed = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                Iterator<Window> iterator = stripe.windows.values().iterator();
+                while (iterator.hasNext()) {
+                    // Access order: everything after the first live key was touched more recently
+                    if (iterator.next().lastSeen >= idleSinceMillis) {
+                        break;
+                    }
+                    iterator.remove();
+                    removed++;
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        evictions.add(removed);
+        return removed;
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.windows.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<String, Window> windows = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Window> eldest) {
+                if (size() > maxKeysPerStripe) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    private static final class Window {
+        long start;
+        long lastSeen;
+        int previous;
+        int current;
+
+        // Windows are aligned to multiples of the window length, so every key rolls over at the same instants
+        void roll(long now, long windowMillis) {
+            long currentStart = now - now % windowMillis;
+            if (currentStart == start) {
+                return;
+            }
+            previous = currentStart - start == windowMillis ? current : 0;
+            current = 0;
+            start = currentStart;
+        }
+
+        // Time until the estimate has dropped far enough for one more hit, rounded up so a client retrying
+        // exactly then is let through
+        long retryAfter(int limit, long now, long windowMillis) {
+            long untilNextWindow = start + windowMillis - now;
+            if (current + 1 > limit) {
+                // Next window, this one's count becomes the weighted one: wait until it has decayed to limit - 1
+                double elapsedNeeded = current == 0 ? 0 : Math.max(0, 1.0 - (limit - 1.0) / current);
+                return Math.max(1, untilNextWindow + (long) Math.ceil(elapsedNeeded * windowMillis));
+            }
+            double weightNeeded = (limit - 1.0 - current) / previous;
+            long decayedAt = start + (long) Math.ceil((1.0 - weightNeeded) * windowMillis);
+            return Math.max(1, Math.min(decayedAt - now, untilNextWindow));
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.aureumpicks.ecommerce.repository;
+
+import com.aureumpicks.ecommerce.model.CartArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CartArchiveRepository extends JpaRepository<CartArchive, Long> {
+
+    List<CartArchive> findByUserId(Long userId);
+
+    // Copies the same lines CartRepository.deleteIdleLines removes, as one INSERT ... SELECT
+    @Modifying
+    @Query("insert into CartArchive (userId, productId, quantity, cartCreatedAt, cartUpdatedAt, archivedAt) " +
+            "select c.user.id, c.product.id, c.quantity, c.createdAt, c.updatedAt, :now from Cart c " +
+            "where c.user.id in :userIds and c.updatedAt < :cutoff")
+    int archiveIdleLines(@Param("userIds") Collection<Long> userIds, @Param("cutoff") LocalDateTime cutoff,
+                         @Param("now") LocalDateTime now);
+}
@@ -1,15 +1,65 @@
 package com.aureumpicks.ecommerce.repository;
 
+import com.aureumpicks.ecommerce.dto.CartResponse;
 import com.aureumpicks.ecommerce.model.Cart;
 import com.aureumpicks.ecommerce.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CartRepository extends JpaRepository<Cart, Long> {
+public interface CartRepository extends JpaRepository<Cart, Long>, CartRepositoryCustom {
     List<Cart> findByUser(User user);  // fndByUser → findByUser
     Optional<Cart> findByUserAndProductId(User user, Long productId);  // fndByUserAndProductId → findByUserAndProductId
-    void deleteByUser(User user);
+    // Bulk statements bypass the persistence context, so pending changes are flushed first and managed
+    // Cart instances are cleared afterwards rather than left pointing at deleted rows
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Cart c where c.user = :user")
+    int deleteByUser(@Param("user") User user);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Cart c where c.product.id = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+
+    // Only lines still idle are removed, so a cart touched after it was picked for purging keeps its new lines
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Cart c where c.user.id in :userIds and c.updatedAt < :cutoff")
+    int deleteIdleLines(@Param("userIds") Collection<Long> userIds, @Param("cutoff") LocalDateTime cutoff);
+
+    // Next chunk of users whose most recent cart write is older than the cutoff, keyset-ordered by user id
+    @Query("select c.user.id from Cart c where c.user.id > :afterUserId group by c.user.id " +
+            "having max(c.updatedAt) < :cutoff order by c.user.id")
+    List<Long> findAbandonedUserIds(@Param("cutoff") LocalDateTime cutoff, @Param("afterUserId") Long afterUserId,
+                                    Limit limit);
+
+    // Whole cart in one statement: product columns and line totals are projected straight into the DTO,
+    // and filtering on the email avoids a separate user lookup
+    @Query("select new com.aureumpicks.ecommerce.dto.CartResponse(" +
+            "c.id, p.id, p.name, p.imageUrl, p.price, c.quantity, p.price * c.quantity) " +
+            "from Cart c join c.product p where c.user.email = :email order by c.id")
+    List<CartResponse> findCartResponsesByUserEmail(@Param("email") String email);
+
+    @Query("select new com.aureumpicks.ecommerce.dto.CartResponse(" +
+            "c.id, p.id, p.name, p.imageUrl, p.price, c.quantity, p.price * c.quantity) " +
+            "from Cart c join c.product p where c.user.id = :userId and p.id = :productId")
+    Optional<CartResponse> findCartResponse(@Param("userId") Long userId, @Param("productId") Long productId);
+
+    // Row locks keep absolute quantity writes from racing atomic increments of the same lines
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @EntityGraph(attributePaths = "product")
+    Optional<Cart> findLockedWithProductById(Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Cart c join fetch c.product where c.user.id = :userId")
+    List<Cart> findLockedWithProductByUserId(@Param("userId") Long userId);
 }
\ No newline at end of file
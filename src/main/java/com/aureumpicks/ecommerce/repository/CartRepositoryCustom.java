@@ -0,0 +1,15 @@
+package com.aureumpicks.ecommerce.repository;
+
+import java.util.Map;
+
+public interface CartRepositoryCustom {
+    // New lines for one user, productId -> quantity, sent as a single JDBC batch
+    void batchInsertLines(Long userId, Map<Long, Integer> quantitiesByProductId);
+
+    // Adds quantity to the user's line for the product, creating it if absent, without a read-modify-write.
+    // Returns true if this call created the line.
+    boolean incrementQuantity(Long userId, Long productId, int quantity);
+
+    // cartId -> new quantity, sent as a single JDBC batch
+    void batchUpdateQuantities(Map<Long, Integer> quantitiesByCartId);
+}
@@ -0,0 +1,56 @@
+package com.aureumpicks.ecommerce.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Plain JDBC because IDENTITY ids stop Hibernate from batching inserts; runs on the JPA transaction's connection
+public class CartRepositoryImpl implements CartRepositoryCustom {
+    private static final String INSERT_LINE =
+            "insert into carts (user_id, product_id, quantity, created_at, updated_at) values (?, ?, ?, ?, ?)";
+    private static final String UPSERT_LINE =
+            "insert into carts (user_id, product_id, quantity, created_at, updated_at) values (?, ?, ?, ?, ?)"
+                    + " on duplicate key update quantity = quantity + values(quantity), updated_at = values(updated_at)";
+    private static final String UPDATE_QUANTITY =
+            "update carts set quantity = ?, updated_at = ? where id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void batchInsertLines(Long userId, Map<Long, Integer> quantitiesByProductId) {
+        if (quantitiesByProductId.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(quantitiesByProductId.size());
+        quantitiesByProductId.forEach((productId, quantity) ->
+                rows.add(new Object[]{userId, productId, quantity, now, now}));
+        jdbcTemplate.batchUpdate(INSERT_LINE, rows);
+    }
+
+    // One statement on the unique (user_id, product_id) key. An UPDATE-then-INSERT pair would take gap locks
+    // under MySQL's REPEATABLE READ, and two concurrent first adds would deadlock on their inserts. MySQL
+    // reports 1 affected row for an insert and 2 when the existing line was incremented.
+    @Override
+    public boolean incrementQuantity(Long userId, Long productId, int quantity) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.update(UPSERT_LINE, userId, productId, quantity, now, now) == 1;
+    }
+
+    @Override
+    public void batchUpdateQuantities(Map<Long, Integer> quantitiesByCartId) {
+        if (quantitiesByCartId.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(quantitiesByCartId.size());
+        quantitiesByCartId.forEach((cartId, quantity) -> rows.add(new Object[]{quantity, now, cartId}));
+        jdbcTemplate.batchUpdate(UPDATE_QUANTITY, rows);
+    }
+}
@@ -0,0 +1,68 @@
+package com.aureumpicks.ecommerce.repository;
+
+import com.aureumpicks.ecommerce.model.CartSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CartSummaryRepository extends JpaRepository<CartSummary, Long>, CartSummaryRepositoryCustom {
+
+    @Query("select s from CartSummary s, User u where u.email = :email and s.userId = u.id")
+    Optional<CartSummary> findByUserEmail(@Param("email") String email);
+
+    // Applied in the database so concurrent writers to the same cart never overwrite each other's deltas
+    @Modifying
+    @Query("update CartSummary s set s.lineCount = s.lineCount + :lines, s.itemCount = s.itemCount + :items, " +
+            "s.subtotal = s.subtotal + :amount, s.version = s.version + 1, s.updatedAt = :now " +
+            "where s.userId = :userId")
+    int applyDelta(@Param("userId") Long userId, @Param("lines") int lines, @Param("items") int items,
+                   @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update CartSummary s set s.lineCount = 0, s.itemCount = 0, s.subtotal = 0, " +
+            "s.version = s.version + 1, s.updatedAt = :now where s.userId = :userId")
+    int reset(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    // Re-derives the totals from the remaining cart rows for many users in one statement
+    @Modifying
+    @Query("update CartSummary s set " +
+            "s.lineCount = (select cast(count(c) as Integer) from Cart c where c.user.id = s.userId), " +
+            "s.itemCount = (select cast(coalesce(sum(c.quantity), 0) as Integer) from Cart c where c.user.id = s.userId), " +
+            "s.subtotal = (select coalesce(sum(c.quantity * c.product.price), 0) from Cart c where c.user.id = s.userId), " +
+            "s.version = s.version + 1, s.updatedAt = :now where s.userId in :userIds")
+    int recompute(@Param("userIds") Collection<Long> userIds, @Param("now") LocalDateTime now);
+
+    // Takes the product's line out of every summary holding it; runs before the lines are deleted
+    @Modifying
+    @Query("update CartSummary s set s.lineCount = s.lineCount - 1, " +
+            "s.itemCount = s.itemCount - (select c.quantity from Cart c " +
+            "where c.user.id = s.userId and c.product.id = :productId), " +
+            "s.subtotal = s.subtotal - (select c.quantity * c.product.price from Cart c " +
+            "where c.user.id = s.userId and c.product.id = :productId), " +
+            "s.version = s.version + 1, s.updatedAt = :now " +
+            "where s.userId in (select c.user.id from Cart c where c.product.id = :productId)")
+    int removeProduct(@Param("productId") Long productId, @Param("now") LocalDateTime now);
+
+    // [lineCount, itemCount, subtotal] straight from the cart rows
+    @Query("select count(c), coalesce(sum(c.quantity), 0), coalesce(sum(p.price * c.quantity), 0) " +
+            "from Cart c join c.product p where c.user.id = :userId")
+    List<Object[]> aggregateCart(@Param("userId") Long userId);
+
+    // A price change shifts every subtotal holding the product by (new - old) * quantity, in one statement
+    @Modifying
+    @Query("update CartSummary s set s.subtotal = s.subtotal + cast(:priceDelta as BigDecimal) * " +
+            "(select c.quantity from Cart c where c.user.id = s.userId and c.product.id = :productId), " +
+            "s.version = s.version + 1, s.updatedAt = :now " +
+            "where s.userId in (select c.user.id from Cart c where c.product.id = :productId)")
+    int applyPriceChange(@Param("productId") Long productId, @Param("priceDelta") BigDecimal priceDelta,
+                         @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,8 @@
+package com.aureumpicks.ecommerce.repository;
+
+import com.aureumpicks.ecommerce.model.CartSummary;
+
+public interface CartSummaryRepositoryCustom {
+    // Inserts the row unless another transaction created it first; returns false in that case
+    boolean insertIfAbsent(CartSummary summary);
+}
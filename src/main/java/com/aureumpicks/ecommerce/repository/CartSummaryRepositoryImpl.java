@@ -0,0 +1,29 @@
+package com.aureumpicks.ecommerce.repository;
+
+import com.aureumpicks.ecommerce.model.CartSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+
+// JDBC so a lost insert race surfaces as a catchable exception instead of breaking the JPA session at flush
+public class CartSummaryRepositoryImpl implements CartSummaryRepositoryCustom {
+    private static final String INSERT_SUMMARY =
+            "insert into cart_summaries (user_id, line_count, item_count, subtotal, version, updated_at) " +
+                    "values (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean insertIfAbsent(CartSummary summary) {
+        try {
+            jdbcTemplate.update(INSERT_SUMMARY, summary.getUserId(), summary.getLineCount(), summary.getItemCount(),
+                    summary.getSubtotal(), summary.getVersion(), Timestamp.valueOf(summary.getUpdatedAt()));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+}
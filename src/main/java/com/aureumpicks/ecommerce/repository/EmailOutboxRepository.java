@@ -0,0 +1,35 @@
+package com.aureumpicks.ecommerce.repository;
+
+import com.aureumpicks.ecommerce.model.EmailOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // FOR UPDATE SKIP LOCKED: concurrent dispatchers (or instances) claim disjoint rows without blocking
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from EmailOutbox e where e.status = :status and e.nextAttemptAt <= :now order by e.nextAttemptAt, e.id")
+    List<EmailOutbox> findDueForUpdate(@Param("status") EmailOutbox.Status status,
+                                       @Param("now") LocalDateTime now,
+                                       Limit limit);
+
+    @Modifying
+    @Query("update EmailOutbox e set e.status = com.aureumpicks.ecommerce.model.EmailOutbox.Status.SENT, " +
+            "e.sentAt = :sentAt, e.updatedAt = :sentAt, e.params = null, e.lastError = null where e.id in :ids")
+    int markSent(@Param("ids") List<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    long countByStatus(EmailOutbox.Status status);
+}
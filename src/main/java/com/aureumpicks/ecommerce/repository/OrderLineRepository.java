@@ -0,0 +1,13 @@
+package com.aureumpicks.ecommerce.repository;
+
+import com.aureumpicks.ecommerce.model.OrderLine;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderLineRepository extends JpaRepository<OrderLine, Long>, OrderLineRepositoryCustom {
+    List<OrderLine> findByOrderIdInOrderByIdAsc(Collection<Long> orderIds);
+}
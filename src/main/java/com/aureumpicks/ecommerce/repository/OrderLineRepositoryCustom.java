@@ -0,0 +1,10 @@
+package com.aureumpicks.ecommerce.repository;
+
+import com.aureumpicks.ecommerce.model.OrderLine;
+
+import java.util.List;
+
+public interface OrderLineRepositoryCustom {
+    // All lines of one order as a single JDBC batch
+    void batchInsert(Long orderId, List<OrderLine> lines);
+}
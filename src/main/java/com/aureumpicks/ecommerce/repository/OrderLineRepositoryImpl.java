@@ -0,0 +1,28 @@
+package com.aureumpicks.ecommerce.repository;
+
+import com.aureumpicks.ecommerce.model.OrderLine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Plain JDBC for the same reason as CartRepositoryImpl: Hibernate can't batch IDENTITY inserts
+public class OrderLineRepositoryImpl implements OrderLineRepositoryCustom {
+    private static final String INSERT_LINE =
+            "insert into order_lines (order_id, product_id, product_name, unit_price, quantity, line_total) " +
+                    "values (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void batchInsert(Long orderId, List<OrderLine> lines) {
+        List<Object[]> rows = new ArrayList<>(lines.size());
+        for (OrderLine line : lines) {
+            rows.add(new Object[]{orderId, line.getProductId(), line.getProductName(), line.getUnitPrice(),
+                    line.getQuantity(), line.getLineTotal()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_LINE, rows);
+    }
+}
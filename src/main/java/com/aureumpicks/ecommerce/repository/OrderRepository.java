@@ -0,0 +1,15 @@
+package com.aureumpicks.ecommerce.repository;
+
+import com.aureumpicks.ecommerce.model.Order;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderRepository extends JpaRepository<Order, Long> {
+    Optional<Order> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+    Optional<Order> findByIdAndUserId(Long id, Long userId);
+    List<Order> findByUserIdOrderByIdDesc(Long userId);
+}
@@ -1,12 +1,76 @@
 package com.aureumpicks.ecommerce.repository;
 
+import com.aureumpicks.ecommerce.dto.CatalogStamp;
+import com.aureumpicks.ecommerce.dto.ProductDetail;
+import com.aureumpicks.ecommerce.dto.ProductSummary;
 import com.aureumpicks.ecommerce.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
     List<Product> findByCategory(String category);  // fndByCategory → findByCategory
     List<Product> findByNameContainingIgnoreCase(String name);  // fndByNameContainingIgnoreCase → findByNameContainingIgnoreCase
+    // Index rebuild reads every product once; read-only entities skip the dirty-checking snapshot
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Read-only views: constructor expressions select just these columns and never become managed entities
+    @Query("select new com.aureumpicks.ecommerce.dto.ProductDetail(p.id, p.name, p.description, p.price, p.stock, " +
+            "p.category, p.imageUrl, p.rating, p.updatedAt) from Product p where p.id = :id")
+    Optional<ProductDetail> findDetailById(@Param("id") Long id);
+
+    @Query("select new com.aureumpicks.ecommerce.dto.ProductSummary(p.id, p.name, p.price, p.category, p.imageUrl, " +
+            "p.rating, p.stock, p.createdAt, p.updatedAt) from Product p where p.category = :category order by p.id")
+    List<ProductSummary> findSummariesByCategory(@Param("category") String category);
+
+    @Query("select new com.aureumpicks.ecommerce.dto.ProductSummary(p.id, p.name, p.price, p.category, p.imageUrl, " +
+            "p.rating, p.stock, p.createdAt, p.updatedAt) from Product p order by p.id")
+    List<ProductSummary> findAllSummaries();
+
+    @Query("select new com.aureumpicks.ecommerce.dto.ProductSummary(p.id, p.name, p.price, p.category, p.imageUrl, " +
+            "p.rating, p.stock, p.createdAt, p.updatedAt) from Product p " +
+            "where lower(p.name) like lower(concat('%', :name, '%')) order by p.id")
+    List<ProductSummary> findSummariesByNameContaining(@Param("name") String name, Limit limit);
+
+    @Query("select new com.aureumpicks.ecommerce.dto.ProductSummary(p.id, p.name, p.price, p.category, p.imageUrl, " +
+            "p.rating, p.stock, p.createdAt, p.updatedAt) from Product p where p.id in :ids order by p.id")
+    List<ProductSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.aureumpicks.ecommerce.dto.ProductSummary(p.id, p.name, p.price, p.category, p.imageUrl, " +
+            "p.rating, p.stock, p.createdAt, p.updatedAt) from Product p where p.id > :afterId order by p.id")
+    List<ProductSummary> findSummariesAfterId(@Param("afterId") Long afterId, Limit limit);
+
+    List<Product> findBySkuIn(Collection<String> skus);
+
+    // Usually a short list; everything else is in stock
+    @Query("select p.id from Product p where p.stock <= 0")
+    List<Long> findOutOfStockIds();
+
+    @Query("select p.category from Product p where p.id = :id")
+    Optional<String> findCategoryById(@Param("id") Long id);
+
+    @Query("select p.stock from Product p where p.id = :id")
+    Optional<Integer> findStockById(@Param("id") Long id);
+
+    // Conditional so concurrent writers can never take stock below zero; returns 0 if there isn't enough
+    @Transactional
+    @Modifying
+    @Query("update Product p set p.stock = p.stock - :quantity, p.updatedAt = local datetime " +
+            "where p.id = :id and p.stock >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Query("select new com.aureumpicks.ecommerce.dto.CatalogStamp(count(p), max(p.updatedAt)) from Product p")
+    CatalogStamp findCatalogStamp();
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.aureumpicks.ecommerce.repository;
+
+import com.aureumpicks.ecommerce.dto.ProductSort;
+import com.aureumpicks.ecommerce.dto.ProductSummary;
+import com.aureumpicks.ecommerce.model.Product;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ProductRepositoryCustom {
+    // Keyset page: rows strictly after (afterValue, afterId) in the given order; afterId == null means first page
+    List<ProductSummary> findSummaryPage(ProductSort sort, boolean descending, Object afterValue, Long afterId, int limit);
+
+    // Inserts rows whose sku is new and updates the rest, one JDBC batch each. Null optional fields keep an
+    // existing row's value. Returns the updated products as they were before the write (id, sku, category
+    // and price only), by id.
+    Map<Long, Product> upsertBySku(List<Product> rows);
+
+    // Gives rows written before ratings existed the default 0 rating; returns how many were changed
+    int backfillMissingRatings();
+}
@@ -0,0 +1,124 @@
+package com.aureumpicks.ecommerce.repository;
+
+import com.aureumpicks.ecommerce.dto.ProductSort;
+import com.aureumpicks.ecommerce.dto.ProductSummary;
+import com.aureumpicks.ecommerce.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+    private static final String SUMMARY_SELECT =
+            "select new com.aureumpicks.ecommerce.dto.ProductSummary(" +
+                    "p.id, p.name, p.price, p.category, p.imageUrl, p.rating, p.stock, p.createdAt, p.updatedAt) " +
+                    "from Product p ";
+    private static final String INSERT_PRODUCT =
+            "insert into products (sku, name, description, price, stock, category, image_url, rating, created_at, updated_at)" +
+                    " values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_PRODUCT =
+            "update products set name = ?, description = coalesce(?, description), price = ?, stock = coalesce(?, stock)," +
+                    " category = coalesce(?, category), image_url = coalesce(?, image_url), rating = coalesce(?, rating)," +
+                    " updated_at = ? where id = ?";
+    // Entity field defaults, for the optional columns an inserted row leaves out
+    private static final Product DEFAULTS = new Product();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<ProductSummary> findSummaryPage(ProductSort sort, boolean descending, Object afterValue, Long afterId, int limit) {
+        // Property names come from the ProductSort whitelist, never from user input
+        String column = "p." + sort.getProperty();
+        String direction = descending ? " desc" : " asc";
+        String op = descending ? " < " : " > ";
+
+        StringBuilder jpql = new StringBuilder(SUMMARY_SELECT);
+        boolean keyset = afterId != null;
+        if (keyset) {
+            if (sort == ProductSort.ID) {
+                jpql.append("where p.id").append(op).append(":afterId ");
+            } else {
+                jpql.append("where ").append(column).append(op).append(":afterValue or (")
+                        .append(column).append(" = :afterValue and p.id").append(op).append(":afterId) ");
+            }
+        }
+        jpql.append("order by ");
+        if (sort != ProductSort.ID) {
+            jpql.append(column).append(direction).append(", ");
+        }
+        jpql.append("p.id").append(direction);
+
+        TypedQuery<ProductSummary> query = entityManager.createQuery(jpql.toString(), ProductSummary.class);
+        if (keyset) {
+            query.setParameter("afterId", afterId);
+            if (sort != ProductSort.ID) {
+                query.setParameter("afterValue", afterValue);
+            }
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public int backfillMissingRatings() {
+        return jdbcTemplate.update("update products set rating = 0 where rating is null");
+    }
+
+    // Plain JDBC because IDENTITY ids stop Hibernate from batching inserts. Ids of inserted rows are left to
+    // the database and not read back per row; callers that need them look the chunk up by sku afterwards.
+    @Override
+    public Map<Long, Product> upsertBySku(List<Product> rows) {
+        if (rows.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Long> idsBySku = new HashMap<>();
+        Map<Long, Product> previous = new HashMap<>();
+        String placeholders = String.join(", ", Collections.nCopies(rows.size(), "?"));
+        jdbcTemplate.query("select id, sku, category, price from products where sku in (" + placeholders + ")",
+                resultSet -> {
+                    Product existing = new Product();
+                    existing.setId(resultSet.getLong("id"));
+                    existing.setSku(resultSet.getString("sku"));
+                    existing.setCategory(resultSet.getString("category"));
+                    existing.setPrice(resultSet.getBigDecimal("price"));
+                    idsBySku.put(existing.getSku(), existing.getId());
+                    previous.put(existing.getId(), existing);
+                },
+                rows.stream().map(Product::getSku).toArray());
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        for (Product row : rows) {
+            Long id = idsBySku.get(row.getSku());
+            if (id == null) {
+                inserts.add(new Object[]{row.getSku(), row.getName(), row.getDescription(), row.getPrice(),
+                        row.getStock() != null ? row.getStock() : DEFAULTS.getStock(),
+                        row.getCategory() != null ? row.getCategory() : DEFAULTS.getCategory(),
+                        row.getImageUrl(), row.getRating() != null ? row.getRating() : DEFAULTS.getRating(), now, now});
+            } else {
+                updates.add(new Object[]{row.getName(), row.getDescription(), row.getPrice(), row.getStock(),
+                        row.getCategory(), row.getImageUrl(), row.getRating(), now, id});
+            }
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_PRODUCT, updates);
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_PRODUCT, inserts);
+        }
+        return previous;
+    }
+}
@@ -2,11 +2,24 @@ package com.aureumpicks.ecommerce.repository;
 
 import com.aureumpicks.ecommerce.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);  // fndByEmail → findByEmail
     Boolean existsByEmail(String email);
+
+    @Query("select u.tokenVersion from User u where u.email = :email")
+    Optional<Integer> findTokenVersionByEmail(@Param("email") String email);
+
+    // Only replaces the hash it was computed from, so a concurrent password reset is never overwritten
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :newHash where u.id = :id and u.password = :oldHash")
+    int replacePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
 }
\ No newline at end of file
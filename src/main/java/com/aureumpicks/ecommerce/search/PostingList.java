@@ -0,0 +1,120 @@
+package com.aureumpicks.ecommerce.search;
+
+import java.util.Arrays;
+
+// Product ids in ascending order with a parallel float per id; primitive arrays keep scans allocation-free
+class PostingList {
+    private long[] ids;
+    private float[] values;
+    private int size;
+
+    PostingList() {
+        this(4);
+    }
+
+    PostingList(int capacity) {
+        ids = new long[Math.max(capacity, 1)];
+        values = new float[Math.max(capacity, 1)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long idAt(int index) {
+        return ids[index];
+    }
+
+    float valueAt(int index) {
+        return values[index];
+    }
+
+    // Ids mostly arrive in ascending order, so this is usually an append
+    void put(long id, float value) {
+        if (size > 0 && ids[size - 1] < id) {
+            append(id, value);
+            return;
+        }
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            values[index] = value;
+            return;
+        }
+        int insertAt = -index - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        values[insertAt] = value;
+        size++;
+    }
+
+    void append(long id, float value) {
+        ensureCapacity(size + 1);
+        ids[size] = id;
+        values[size] = value;
+        size++;
+    }
+
+    void remove(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+    }
+
+    // Union keeping the larger value for ids present in both
+    PostingList unionMax(PostingList other) {
+        PostingList merged = new PostingList(size + other.size);
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (ids[i] < other.ids[j]) {
+                merged.append(ids[i], values[i++]);
+            } else if (ids[i] > other.ids[j]) {
+                merged.append(other.ids[j], other.values[j++]);
+            } else {
+                merged.append(ids[i], Math.max(values[i++], other.values[j++]));
+            }
+        }
+        while (i < size) {
+            merged.append(ids[i], values[i++]);
+        }
+        while (j < other.size) {
+            merged.append(other.ids[j], other.values[j++]);
+        }
+        return merged;
+    }
+
+    // Intersection summing values for ids present in both
+    PostingList intersectSum(PostingList other) {
+        PostingList merged = new PostingList(Math.min(size, other.size));
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (ids[i] < other.ids[j]) {
+                i++;
+            } else if (ids[i] > other.ids[j]) {
+                j++;
+            } else {
+                merged.append(ids[i], values[i++] + other.values[j++]);
+            }
+        }
+        return merged;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ids.length) {
+            int newCapacity = Math.max(capacity, ids.length + (ids.length >> 1) + 1);
+            ids = Arrays.copyOf(ids, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+        }
+    }
+}
@@ -0,0 +1,494 @@
+package com.aureumpicks.ecommerce.search;
+
+import com.aureumpicks.ecommerce.dto.FacetCounts;
+import com.aureumpicks.ecommerce.dto.ProductSummary;
+import com.aureumpicks.ecommerce.event.ProductChangedEvent;
+import com.aureumpicks.ecommerce.event.ProductsImportedEvent;
+import com.aureumpicks.ecommerce.model.Product;
+import com.aureumpicks.ecommerce.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap indexes for faceted browsing: one BitSet over product ids per category, price bucket and whole-star
+ * rating, plus one for in-stock. A filter is the AND of each facet's OR'ed values, and each facet's counts are
+ * the cardinality of its values ANDed with the other facets' filters, so neither needs a GROUP BY. Per-value
+ * totals are kept as running counts for the unfiltered view. Updated from ProductService's change events;
+ * stock moved by order flushes is picked up by a periodic re-check of the out-of-stock ids.
+ */
+@Component
+public class ProductFacetIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ProductFacetIndex.class);
+
+    private static final int BUILD_CHUNK_SIZE = 1000;
+    private static final int MAX_STARS = 5;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // Upper bounds of the price buckets; the last bucket is open-ended
+    @Value("${app.facets.price-buckets:25,50,100,250,500,1000}")
+    private String priceBucketBounds;
+
+    private BigDecimal[] priceBounds;
+    private String[] priceLabels;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final BitSet live = new BitSet();
+    private final Map<String, FacetValue> categories = new TreeMap<>();
+    private FacetValue[] prices;
+    private final FacetValue[] ratings = new FacetValue[MAX_STARS + 1];
+    private final FacetValue inStock = new FacetValue();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Set<Long> removedDuringBuild = new HashSet<>();
+    private volatile boolean ready = false;
+    private volatile boolean building = false;
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder queryNanos = new LongAdder();
+
+    // What a product is indexed under, so an update clears exactly those bits
+    private static final class Entry {
+        final String category;
+        final int priceBucket;
+        final int stars;
+        final boolean inStock;
+        final LocalDateTime updatedAt;
+
+        Entry(String category, int priceBucket, int stars, boolean inStock, LocalDateTime updatedAt) {
+            this.category = category;
+            this.priceBucket = priceBucket;
+            this.stars = stars;
+            this.inStock = inStock;
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    private static final class FacetValue {
+        final BitSet ids = new BitSet();
+        int count;
+
+        void add(int id) {
+            if (!ids.get(id)) {
+                ids.set(id);
+                count++;
+            }
+        }
+
+        void remove(int id) {
+            if (ids.get(id)) {
+                ids.clear(id);
+                count--;
+            }
+        }
+    }
+
+    // Matching ids for one page plus the facet counts
+    public static final class Result {
+        private final List<Long> pageIds;
+        private final int total;
+        private final FacetCounts counts;
+
+        private Result(List<Long> pageIds, int total, FacetCounts counts) {
+            this.pageIds = pageIds;
+            this.total = total;
+            this.counts = counts;
+        }
+
+        public List<Long> getPageIds() {
+            return pageIds;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public FacetCounts getCounts() {
+            return counts;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        priceBounds = Arrays.stream(priceBucketBounds.split(","))
+                .map(String::trim)
+                .map(BigDecimal::new)
+                .sorted()
+                .toArray(BigDecimal[]::new);
+        priceLabels = new String[priceBounds.length + 1];
+        prices = new FacetValue[priceBounds.length + 1];
+        BigDecimal lower = BigDecimal.ZERO;
+        for (int i = 0; i < priceBounds.length; i++) {
+            priceLabels[i] = lower.toPlainString() + "-" + priceBounds[i].toPlainString();
+            lower = priceBounds[i];
+        }
+        priceLabels[priceBounds.length] = lower.toPlainString() + "+";
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = new FacetValue();
+        }
+        for (int i = 0; i < ratings.length; i++) {
+            ratings[i] = new FacetValue();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Same chunked, off-thread load as the search index; browsing answers 503 until it is done
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        building = true;
+        long started = System.currentTimeMillis();
+        try {
+            Long lastId = 0L;
+            List<ProductSummary> chunk;
+            do {
+                chunk = productRepository.findSummariesAfterId(lastId, Limit.of(BUILD_CHUNK_SIZE));
+                lock.writeLock().lock();
+                try {
+                    for (ProductSummary product : chunk) {
+                        Entry existing = entries.get(product.getId());
+                        boolean newerAlreadyIndexed = existing != null && existing.updatedAt != null
+                                && product.getUpdatedAt() != null && !existing.updatedAt.isBefore(product.getUpdatedAt());
+                        if (!removedDuringBuild.contains(product.getId()) && !newerAlreadyIndexed) {
+                            indexLocked(product.getId(), product.getCategory(), product.getPrice(), product.getRating(),
+                                    product.getStock(), product.getUpdatedAt());
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (!chunk.isEmpty()) {
+                    lastId = chunk.get(chunk.size() - 1).getId();
+                }
+            } while (chunk.size() == BUILD_CHUNK_SIZE);
+
+            ready = true;
+            logger.info("Product facet index built: {} products, {} categories in {} ms",
+                    entries.size(), categories.size(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.error("Product facet index build failed, browsing stays unavailable", e);
+        } finally {
+            building = false;
+            lock.writeLock().lock();
+            try {
+                removedDuringBuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // After commit, so a rolled-back write never shows up in facet counts
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.getType() == ProductChangedEvent.Type.DELETED) {
+                removeLocked(event.getProductId());
+                if (building) {
+                    removedDuringBuild.add(event.getProductId());
+                }
+            } else {
+                Product product = event.getProduct();
+                indexLocked(product.getId(), product.getCategory(), product.getPrice(), product.getRating(),
+                        product.getStock(), product.getUpdatedAt());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (Product product : event.getProducts()) {
+                indexLocked(product.getId(), product.getCategory(), product.getPrice(), product.getRating(),
+                        product.getStock(), product.getUpdatedAt());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Stock flushes write products.stock without an event; reconcile the in-stock bits against the database
+    @Scheduled(fixedDelayString = "${app.facets.stock-refresh-ms:30000}",
+            initialDelayString = "${app.facets.stock-refresh-ms:30000}")
+    public void refreshStock() {
+        if (!ready) {
+            return;
+        }
+        BitSet outOfStock = new BitSet();
+        for (Long id : productRepository.findOutOfStockIds()) {
+            if (id <= Integer.MAX_VALUE) {
+                outOfStock.set(id.intValue());
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            BitSet nowOut = (BitSet) inStock.ids.clone();
+            nowOut.and(outOfStock);
+            BitSet nowIn = (BitSet) live.clone();
+            nowIn.andNot(inStock.ids);
+            nowIn.andNot(outOfStock);
+            for (int id = nowOut.nextSetBit(0); id >= 0; id = nowOut.nextSetBit(id + 1)) {
+                setInStockLocked(id, false);
+            }
+            for (int id = nowIn.nextSetBit(0); id >= 0; id = nowIn.nextSetBit(id + 1)) {
+                setInStockLocked(id, true);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<String> priceLabels() {
+        return List.of(priceLabels);
+    }
+
+    /**
+     * Products matching every given facet (any of the listed values within a facet), in id order. Empty or
+     * null arguments don't filter; unknown category or price labels match nothing.
+     */
+    public Result query(Collection<String> categoryFilter, Collection<String> priceFilter, Integer minStars,
+                        boolean inStockOnly, int page, int size) {
+        long started = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            BitSet byCategory = categoryFilter == null || categoryFilter.isEmpty() ? null
+                    : union(categoryFilter.stream().map(categories::get).toList());
+            BitSet byPrice = priceFilter == null || priceFilter.isEmpty() ? null
+                    : union(priceFilter.stream().map(this::priceValue).toList());
+            BitSet byRating = minStars == null || minStars <= 0 ? null
+                    : union(Arrays.asList(ratings).subList(Math.min(minStars, MAX_STARS + 1), ratings.length));
+            BitSet byStock = inStockOnly ? inStock.ids : null;
+
+            BitSet matches = intersect(byCategory, byPrice, byRating, byStock);
+            int total = matches.cardinality();
+            int skip = Math.multiplyExact(page, size);
+            List<Long> pageIds = new ArrayList<>(skip >= total ? 0 : Math.min(size, total - skip));
+            for (int id = skip >= total ? -1 : matches.nextSetBit(0); id >= 0 && pageIds.size() < size;
+                 id = matches.nextSetBit(id + 1)) {
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    pageIds.add((long) id);
+                }
+            }
+
+            // Each facet's counts leave out that facet's own filter
+            BitSet forCategories = byPrice == null && byRating == null && byStock == null ? null
+                    : intersect(null, byPrice, byRating, byStock);
+            Map<String, Integer> categoryCounts = new LinkedHashMap<>();
+            for (Map.Entry<String, FacetValue> category : categories.entrySet()) {
+                int count = count(category.getValue(), forCategories);
+                if (count > 0 || (categoryFilter != null && categoryFilter.contains(category.getKey()))) {
+                    categoryCounts.put(category.getKey(), count);
+                }
+            }
+
+            BitSet forPrices = byCategory == null && byRating == null && byStock == null ? null
+                    : intersect(byCategory, null, byRating, byStock);
+            Map<String, Integer> priceCounts = new LinkedHashMap<>();
+            for (int i = 0; i < prices.length; i++) {
+                priceCounts.put(priceLabels[i], count(prices[i], forPrices));
+            }
+
+            // Star buckets are disjoint, so "at least N" is a running sum from the top
+            BitSet forRatings = byCategory == null && byPrice == null && byStock == null ? null
+                    : intersect(byCategory, byPrice, null, byStock);
+            Map<String, Integer> ratingCounts = new LinkedHashMap<>();
+            int atLeast = 0;
+            int[] cumulative = new int[MAX_STARS + 1];
+            for (int stars = MAX_STARS; stars >= 1; stars--) {
+                atLeast += count(ratings[stars], forRatings);
+                cumulative[stars] = atLeast;
+            }
+            for (int stars = MAX_STARS; stars >= 1; stars--) {
+                ratingCounts.put(stars + "+", cumulative[stars]);
+            }
+
+            BitSet forStock = byCategory == null && byPrice == null && byRating == null ? null
+                    : intersect(byCategory, byPrice, byRating, null);
+            int inStockCount = count(inStock, forStock);
+
+            return new Result(pageIds, total,
+                    new FacetCounts(categoryCounts, priceCounts, ratingCounts, inStockCount));
+        } finally {
+            lock.readLock().unlock();
+            queryNanos.add(System.nanoTime() - started);
+            queries.increment();
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        lock.readLock().lock();
+        try {
+            long bitmapBytes = live.size() / 8 + inStock.ids.size() / 8;
+            for (FacetValue value : categories.values()) {
+                bitmapBytes += value.ids.size() / 8;
+            }
+            for (FacetValue value : prices) {
+                bitmapBytes += value.ids.size() / 8;
+            }
+            for (FacetValue value : ratings) {
+                bitmapBytes += value.ids.size() / 8;
+            }
+            long queryCount = queries.sum();
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("ready", ready);
+            metrics.put("products", entries.size());
+            metrics.put("categories", categories.size());
+            metrics.put("bitmapBytes", bitmapBytes);
+            metrics.put("queries", queryCount);
+            metrics.put("averageQueryMicros", queryCount == 0 ? 0.0 : queryNanos.sum() / 1000.0 / queryCount);
+            return metrics;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void indexLocked(Long productId, String category, BigDecimal price, Double rating, Integer stock,
+                             LocalDateTime updatedAt) {
+        // Bit positions are the ids themselves; IDENTITY ids stay dense and far below this
+        if (productId > Integer.MAX_VALUE) {
+            logger.warn("Product {} not faceted: id exceeds the bitmap range", productId);
+            return;
+        }
+        removeLocked(productId);
+        int id = productId.intValue();
+        Entry entry = new Entry(category, priceBucket(price), stars(rating), stock != null && stock > 0, updatedAt);
+        live.set(id);
+        if (entry.category != null) {
+            categories.computeIfAbsent(entry.category, key -> new FacetValue()).add(id);
+        }
+        prices[entry.priceBucket].add(id);
+        ratings[entry.stars].add(id);
+        if (entry.inStock) {
+            inStock.add(id);
+        }
+        entries.put(productId, entry);
+    }
+
+    private void removeLocked(Long productId) {
+        Entry existing = entries.remove(productId);
+        if (existing == null) {
+            return;
+        }
+        int id = productId.intValue();
+        live.clear(id);
+        if (existing.category != null) {
+            FacetValue category = categories.get(existing.category);
+            category.remove(id);
+            if (category.count == 0) {
+                categories.remove(existing.category);
+            }
+        }
+        prices[existing.priceBucket].remove(id);
+        ratings[existing.stars].remove(id);
+        inStock.remove(id);
+    }
+
+    private void setInStockLocked(int id, boolean available) {
+        Entry existing = entries.get((long) id);
+        if (existing == null) {
+            return;
+        }
+        entries.put((long) id, new Entry(existing.category, existing.priceBucket, existing.stars, available,
+                existing.updatedAt));
+        if (available) {
+            inStock.add(id);
+        } else {
+            inStock.remove(id);
+        }
+    }
+
+    private int priceBucket(BigDecimal price) {
+        if (price == null) {
+            return 0;
+        }
+        for (int i = 0; i < priceBounds.length; i++) {
+            if (price.compareTo(priceBounds[i]) < 0) {
+                return i;
+            }
+        }
+        return priceBounds.length;
+    }
+
+    private static int stars(Double rating) {
+        if (rating == null || rating.isNaN()) {
+            return 0;
+        }
+        return (int) Math.max(0, Math.min(MAX_STARS, Math.floor(rating)));
+    }
+
+    private FacetValue priceValue(String label) {
+        for (int i = 0; i < priceLabels.length; i++) {
+            if (priceLabels[i].equals(label)) {
+                return prices[i];
+            }
+        }
+        return null;
+    }
+
+    private static BitSet union(List<FacetValue> values) {
+        BitSet union = new BitSet();
+        for (FacetValue value : values) {
+            if (value != null) {
+                union.or(value.ids);
+            }
+        }
+        return union;
+    }
+
+    // AND of the non-null filters over the live products; never returns one of the index's own sets
+    private BitSet intersect(BitSet... filters) {
+        BitSet result = (BitSet) live.clone();
+        for (BitSet filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    // The running count when nothing else filters, otherwise the size of the intersection
+    private static int count(FacetValue value, BitSet filter) {
+        if (filter == null) {
+            return value.count;
+        }
+        BitSet matches = (BitSet) value.ids.clone();
+        matches.and(filter);
+        return matches.cardinality();
+    }
+}
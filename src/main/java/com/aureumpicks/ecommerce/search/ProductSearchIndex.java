@@ -0,0 +1,380 @@
+package com.aureumpicks.ecommerce.search;
+
+import com.aureumpicks.ecommerce.dto.ProductSearchResponse;
+import com.aureumpicks.ecommerce.dto.ProductSummary;
+import com.aureumpicks.ecommerce.event.ProductChangedEvent;
+import com.aureumpicks.ecommerce.event.ProductsImportedEvent;
+import com.aureumpicks.ecommerce.model.Product;
+import com.aureumpicks.ecommerce.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name, category and description.
+ *
+ * Terms map to id-sorted postings of productId -> field-weighted term frequency. A sorted term dictionary
+ * serves prefix expansion of the last query token, and a single-deletion neighbourhood
+ * (SymSpell style) serves edit-distance-1 typo matches without scanning the vocabulary.
+ * Results are ranked with a BM25-like score and rendered from stored list rows, so a query
+ * never touches the database once the index is built.
+ */
+@Component
+public class ProductSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final float PREFIX_FACTOR = 0.6f;
+    private static final float FUZZY_FACTOR = 0.4f;
+    private static final float K1 = 1.2f;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MAX_EXPANSIONS = 64;
+    private static final int BUILD_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SearchTokenizer tokenizer;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<String, Set<String>> deletions = new HashMap<>();
+    private final Map<Long, IndexedProduct> products = new HashMap<>();
+    private final Set<Long> removedDuringBuild = new HashSet<>();
+    private volatile boolean ready = false;
+    private volatile boolean building = false;
+
+    private static class IndexedProduct {
+        private final ProductSummary summary;
+        private final Map<String, Float> terms;
+        private final LocalDateTime updatedAt;
+
+        private IndexedProduct(ProductSummary summary, Map<String, Float> terms, LocalDateTime updatedAt) {
+            this.summary = summary;
+            this.terms = terms;
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return products.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Load the catalog in id-ordered chunks off the startup thread; searches fall back to SQL until done
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        building = true;
+        long started = System.currentTimeMillis();
+        try {
+            Long lastId = 0L;
+            List<Product> chunk;
+            do {
+                chunk = productRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(BUILD_CHUNK_SIZE));
+                lock.writeLock().lock();
+                try {
+                    for (Product product : chunk) {
+                        IndexedProduct existing = products.get(product.getId());
+                        boolean newerAlreadyIndexed = existing != null && existing.updatedAt != null
+                                && product.getUpdatedAt() != null && !existing.updatedAt.isBefore(product.getUpdatedAt());
+                        if (!removedDuringBuild.contains(product.getId()) && !newerAlreadyIndexed) {
+                            indexLocked(product);
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (!chunk.isEmpty()) {
+                    lastId = chunk.get(chunk.size() - 1).getId();
+                }
+            } while (chunk.size() == BUILD_CHUNK_SIZE);
+
+            ready = true;
+            logger.info("Product search index built: {} products, {} terms in {} ms",
+                    size(), postings.size(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.error("Product search index build failed, search stays on SQL fallback", e);
+        } finally {
+            building = false;
+            lock.writeLock().lock();
+            try {
+                removedDuringBuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // After commit, so searches never see a write that might still roll back
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.getType() == ProductChangedEvent.Type.DELETED) {
+                removeLocked(event.getProductId());
+                if (building) {
+                    removedDuringBuild.add(event.getProductId());
+                }
+            } else {
+                indexLocked(event.getProduct());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (Product product : event.getProducts()) {
+                indexLocked(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public ProductSearchResponse search(String query, int page, int size) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenizer.tokenize(query)));
+        if (tokens.isEmpty()) {
+            return new ProductSearchResponse(Collections.emptyList(), 0, page, size);
+        }
+
+        lock.readLock().lock();
+        try {
+            // Score each token separately, then keep only products matching every token (AND semantics)
+            List<PostingList> perToken = new ArrayList<>(tokens.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                PostingList scores = scoreToken(tokens.get(i), i == tokens.size() - 1);
+                if (scores.isEmpty()) {
+                    return new ProductSearchResponse(Collections.emptyList(), 0, page, size);
+                }
+                perToken.add(scores);
+            }
+            perToken.sort(Comparator.comparingInt(PostingList::size));
+            PostingList matches = perToken.get(0);
+            for (int i = 1; i < perToken.size() && !matches.isEmpty(); i++) {
+                matches = matches.intersectSum(perToken.get(i));
+            }
+
+            // Callers bound page * size (ProductService); the heap never needs more than every match
+            int offset = Math.multiplyExact(page, size);
+            if (offset >= matches.size()) {
+                return new ProductSearchResponse(Collections.emptyList(), matches.size(), page, size);
+            }
+            int wanted = Math.min(offset + size, matches.size());
+
+            // Bounded min-heap of (score, id); ties favour the lower id so ordering is stable across pages
+            Comparator<long[]> worstFirst = Comparator.<long[]>comparingDouble(entry -> Float.intBitsToFloat((int) entry[1]))
+                    .thenComparing(entry -> -entry[0]);
+            PriorityQueue<long[]> top = new PriorityQueue<>(wanted + 1, worstFirst);
+            for (int i = 0; i < matches.size(); i++) {
+                float score = matches.valueAt(i);
+                if (top.size() == wanted && score <= Float.intBitsToFloat((int) top.peek()[1])) {
+                    continue;
+                }
+                top.offer(new long[]{matches.idAt(i), Float.floatToIntBits(score)});
+                if (top.size() > wanted) {
+                    top.poll();
+                }
+            }
+
+            List<long[]> ranked = new ArrayList<>(top);
+            ranked.sort(worstFirst.reversed());
+            List<ProductSummary> items = new ArrayList<>(size);
+            for (int i = offset; i < ranked.size(); i++) {
+                items.add(products.get(ranked.get(i)[0]).summary);
+            }
+            return new ProductSearchResponse(items, matches.size(), page, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private PostingList scoreToken(String token, boolean allowPrefix) {
+        Map<String, Float> expansions = new HashMap<>();
+        if (postings.containsKey(token)) {
+            expansions.put(token, 1.0f);
+        }
+        if (allowPrefix) {
+            for (String term : postings.subMap(token, false, token + Character.MAX_VALUE, false).keySet()) {
+                if (expansions.size() >= MAX_EXPANSIONS) {
+                    break;
+                }
+                expansions.putIfAbsent(term, PREFIX_FACTOR);
+            }
+        }
+        if (expansions.isEmpty() && token.length() >= MIN_FUZZY_LENGTH) {
+            for (String term : fuzzyCandidates(token)) {
+                if (expansions.size() >= MAX_EXPANSIONS) {
+                    break;
+                }
+                expansions.putIfAbsent(term, FUZZY_FACTOR);
+            }
+        }
+
+        PostingList scores = new PostingList();
+        int totalProducts = Math.max(products.size(), 1);
+        for (Map.Entry<String, Float> expansion : expansions.entrySet()) {
+            PostingList postingList = postings.get(expansion.getKey());
+            int df = postingList.size();
+            float idf = (float) Math.log(1 + (totalProducts - df + 0.5) / (df + 0.5));
+            PostingList termScores = new PostingList(df);
+            for (int i = 0; i < df; i++) {
+                float tf = postingList.valueAt(i);
+                termScores.append(postingList.idAt(i), expansion.getValue() * idf * (tf * (K1 + 1)) / (tf + K1));
+            }
+            scores = scores.isEmpty() ? termScores : scores.unionMax(termScores);
+        }
+        return scores;
+    }
+
+    // Terms within one insertion, deletion, substitution or adjacent transposition of the token
+    private Set<String> fuzzyCandidates(String token) {
+        Set<String> candidates = new LinkedHashSet<>();
+        Set<String> variants = deletionVariants(token);
+        variants.add(token);
+        for (String variant : variants) {
+            if (postings.containsKey(variant)) {
+                candidates.add(variant);
+            }
+            Set<String> terms = deletions.get(variant);
+            if (terms != null) {
+                candidates.addAll(terms);
+            }
+        }
+        candidates.removeIf(term -> !withinOneEdit(token, term));
+        return candidates;
+    }
+
+    private void indexLocked(Product product) {
+        removeLocked(product.getId());
+
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, product.getName(), NAME_WEIGHT);
+        addField(terms, product.getCategory(), CATEGORY_WEIGHT);
+        addField(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        for (Map.Entry<String, Float> term : terms.entrySet()) {
+            PostingList postingList = postings.get(term.getKey());
+            if (postingList == null) {
+                postingList = new PostingList();
+                postings.put(term.getKey(), postingList);
+                if (term.getKey().length() >= MIN_FUZZY_LENGTH) {
+                    for (String variant : deletionVariants(term.getKey())) {
+                        deletions.computeIfAbsent(variant, k -> new HashSet<>()).add(term.getKey());
+                    }
+                }
+            }
+            postingList.put(product.getId(), term.getValue());
+        }
+
+        ProductSummary summary = new ProductSummary(product.getId(), product.getName(), product.getPrice(),
+                product.getCategory(), product.getImageUrl(), product.getRating(), product.getStock(),
+                product.getCreatedAt(), product.getUpdatedAt());
+        products.put(product.getId(), new IndexedProduct(summary, terms, product.getUpdatedAt()));
+    }
+
+    private void removeLocked(Long productId) {
+        IndexedProduct existing = products.remove(productId);
+        if (existing == null) {
+            return;
+        }
+        for (String term : existing.terms.keySet()) {
+            PostingList postingList = postings.get(term);
+            if (postingList == null) {
+                continue;
+            }
+            postingList.remove(productId);
+            if (postingList.isEmpty()) {
+                postings.remove(term);
+                for (String variant : deletionVariants(term)) {
+                    Set<String> terms = deletions.get(variant);
+                    if (terms != null) {
+                        terms.remove(term);
+                        if (terms.isEmpty()) {
+                            deletions.remove(variant);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void addField(Map<String, Float> terms, String text, float weight) {
+        for (String token : tokenizer.tokenize(text)) {
+            terms.merge(token, weight, Float::sum);
+        }
+    }
+
+    private static Set<String> deletionVariants(String term) {
+        Set<String> variants = new HashSet<>();
+        for (int i = 0; i < term.length(); i++) {
+            variants.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return variants;
+    }
+
+    // Optimal string alignment distance <= 1, without building the full DP matrix
+    private static boolean withinOneEdit(String a, String b) {
+        int lengthDiff = a.length() - b.length();
+        if (Math.abs(lengthDiff) > 1) {
+            return false;
+        }
+        int i = 0;
+        while (i < a.length() && i < b.length() && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (lengthDiff > 0) {
+            return a.substring(i + 1).equals(b.substring(i));
+        }
+        if (lengthDiff < 0) {
+            return a.substring(i).equals(b.substring(i + 1));
+        }
+        if (i == a.length()) {
+            return true;
+        }
+        if (a.substring(i + 1).equals(b.substring(i + 1))) {
+            return true;
+        }
+        return i + 1 < a.length()
+                && a.charAt(i) == b.charAt(i + 1)
+                && a.charAt(i + 1) == b.charAt(i)
+                && a.substring(i + 2).equals(b.substring(i + 2));
+    }
+}
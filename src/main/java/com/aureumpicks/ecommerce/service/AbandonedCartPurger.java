@@ -0,0 +1,209 @@
+package com.aureumpicks.ecommerce.service;
+
+import com.aureumpicks.ecommerce.repository.CartRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Removes (and by default archives) carts nobody has touched for idle-days. Users are walked in user id
+ * order, chunk-size carts per transaction, so each delete locks a few index ranges briefly; between chunks
+ * the job sleeps at least pause-ms and never less than the chunk itself took, keeping it under half of
+ * the database's time when the store is busy. A run that hits max-duration resumes where it stopped.
+ * Runs happen on the purger's own thread, so those pauses never hold up the shared scheduler thread that
+ * stock flushes, hold expiry and the email outbox depend on.
+ */
+@Component
+public class AbandonedCartPurger {
+    private static final Logger logger = LoggerFactory.getLogger(AbandonedCartPurger.class);
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartService cartService;
+
+    @Value("${app.cart.purge.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.cart.purge.idle-days:30}")
+    private int idleDays;
+
+    // Copy purged lines to cart_archives before deleting them
+    @Value("${app.cart.purge.archive:true}")
+    private boolean archive;
+
+    // Carts per transaction
+    @Value("${app.cart.purge.chunk-size:100}")
+    private int chunkSize;
+
+    @Value("${app.cart.purge.pause-ms:250}")
+    private long pauseMillis;
+
+    @Value("${app.cart.purge.max-duration-ms:600000}")
+    private long maxDurationMillis;
+
+    private ExecutorService worker;
+    private final AtomicBoolean running = new AtomicBoolean();
+    // Keyset position a time-boxed run stopped at; 0 once a run reaches the end
+    private final AtomicLong resumeAfterUserId = new AtomicLong();
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder chunks = new LongAdder();
+    private final LongAdder cartsPurged = new LongAdder();
+    private final LongAdder linesRemoved = new LongAdder();
+    private final LongAdder failedChunks = new LongAdder();
+    private final AtomicLong lastRunCarts = new AtomicLong();
+    private final AtomicLong lastRunMillis = new AtomicLong();
+    private final AtomicLong maxChunkMillis = new AtomicLong();
+    private volatile LocalDateTime lastRunStartedAt;
+    private volatile LocalDateTime lastCutoff;
+
+    @PostConstruct
+    public void init() {
+        worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Interrupts a pause; the run stops after its current chunk and resumes from there next time
+        worker.shutdownNow();
+        worker.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    // Off-peak by default. Hands the run to the purger thread and returns straight away
+    @Scheduled(cron = "${app.cart.purge.cron:0 30 3 * * *}")
+    public void purge() {
+        if (!enabled || running.get()) {
+            return;
+        }
+        try {
+            worker.execute(this::run);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    // Returns the number of carts emptied by this run, or -1 if a run was already in progress
+    public long run() {
+        if (!running.compareAndSet(false, true)) {
+            return -1;
+        }
+        try {
+            return purgeChunks();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long purgeChunks() {
+        long started = System.nanoTime();
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(idleDays);
+        lastRunStartedAt = LocalDateTime.now();
+        lastCutoff = cutoff;
+        runs.increment();
+
+        long after = resumeAfterUserId.get();
+        long carts = 0;
+        long lines = 0;
+        boolean finished = false;
+        while (elapsedMillis(started) < maxDurationMillis) {
+            List<Long> userIds = cartRepository.findAbandonedUserIds(cutoff, after, Limit.of(chunkSize));
+            if (userIds.isEmpty()) {
+                finished = true;
+                break;
+            }
+            long chunkStarted = System.nanoTime();
+            try {
+                lines += cartService.purgeIdleLines(userIds, cutoff, archive);
+                carts += userIds.size();
+            } catch (RuntimeException e) {
+                // Skip the chunk rather than retry it forever; the next run picks these carts up again
+                failedChunks.increment();
+                logger.warn("Abandoned-cart chunk after user {} failed: {}", after, e.getMessage());
+            }
+            long chunkMillis = elapsedMillis(chunkStarted);
+            chunks.increment();
+            maxChunkMillis.accumulateAndGet(chunkMillis, Math::max);
+            after = userIds.get(userIds.size() - 1);
+            resumeAfterUserId.set(after);
+
+            if (userIds.size() < chunkSize) {
+                finished = true;
+                break;
+            }
+            if (!pause(Math.max(pauseMillis, chunkMillis))) {
+                break;
+            }
+        }
+        if (finished) {
+            resumeAfterUserId.set(0);
+        }
+
+        cartsPurged.add(carts);
+        linesRemoved.add(lines);
+        lastRunCarts.set(carts);
+        lastRunMillis.set(elapsedMillis(started));
+        if (carts > 0 || !finished) {
+            logger.info("Purged {} abandoned carts ({} lines) idle since {} in {} ms{}", carts, lines, cutoff,
+                    lastRunMillis.get(), finished ? "" : ", resuming after user " + after);
+        }
+        return carts;
+    }
+
+    private boolean pause(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static long elapsedMillis(long startedNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("running", running.get());
+        metrics.put("idleThreshold", Duration.ofDays(idleDays).toString());
+        metrics.put("runs", runs.sum());
+        metrics.put("chunks", chunks.sum());
+        metrics.put("failedChunks", failedChunks.sum());
+        metrics.put("cartsPurged", cartsPurged.sum());
+        metrics.put("linesRemoved", linesRemoved.sum());
+        metrics.put("lastRunStartedAt", lastRunStartedAt);
+        metrics.put("lastRunCutoff", lastCutoff);
+        metrics.put("lastRunCarts", lastRunCarts.get());
+        metrics.put("lastRunMillis", lastRunMillis.get());
+        metrics.put("maxChunkMillis", maxChunkMillis.get());
+        metrics.put("resumeAfterUserId", resumeAfterUserId.get());
+        return metrics;
+    }
+}
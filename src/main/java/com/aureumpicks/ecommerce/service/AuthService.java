@@ -1,11 +1,10 @@
 package com.aureumpicks.ecommerce.service;
 
 import com.aureumpicks.ecommerce.dto.*;
+import com.aureumpicks.ecommerce.model.OtpPurpose;
 import com.aureumpicks.ecommerce.model.User;
 import com.aureumpicks.ecommerce.util.JwtUtil;
-import com.aureumpicks.ecommerce.util.OtpUtil;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -17,13 +16,16 @@ public class AuthService {
     private EmailService emailService;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     @Autowired
     private JwtUtil jwtUtil;
 
     @Autowired
-    private OtpUtil otpUtil;
+    private OtpService otpService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
 
     public MessageResponse signup(SignupRequest request) {
         if (userService.existsByEmail(request.getEmail())) {
@@ -32,14 +34,11 @@ public class AuthService {
 
         User user = new User();
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
         user.setIsVerified(false);  // setIsVerifed → setIsVerified
+        user = userService.save(user);
 
-        String otp = otpUtil.generateOtp();
-        user.setOtp(otp);
-        user.setOtpExpiry(otpUtil.getOtpExpiry());
-
-        userService.save(user);
+        String otp = otpService.issue(user, OtpPurpose.VERIFICATION);
 
         try {
             emailService.sendVerificationEmail(user.getEmail(), otp);  // sendVerifcationEmail → sendVerificationEmail
@@ -60,13 +59,11 @@ public class AuthService {
             throw new RuntimeException("Email already verified");  // verifed → verified
         }
 
-        if (!otpUtil.verifyOtp(request.getOtp(), user.getOtp(), user.getOtpExpiry())) {
+        if (!otpService.verify(user, OtpPurpose.VERIFICATION, request.getOtp())) {
             throw new RuntimeException("Invalid or expired OTP");
         }
 
         user.setIsVerified(true);  // setIsVerifed → setIsVerified
-        user.setOtp(null);
-        user.setOtpExpiry(null);
         userService.save(user);
 
         return new MessageResponse("Email verified successfully! You can now login.");  // verifed → verified
@@ -82,10 +79,7 @@ public class AuthService {
             throw new RuntimeException("Email already verified");  // verifed → verified
         }
 
-        String otp = otpUtil.generateOtp();
-        user.setOtp(otp);
-        user.setOtpExpiry(otpUtil.getOtpExpiry());
-        userService.save(user);
+        String otp = otpService.issue(user, OtpPurpose.VERIFICATION);
 
         try {
             emailService.sendVerificationEmail(user.getEmail(), otp);  // sendVerifcationEmail → sendVerificationEmail
@@ -106,11 +100,19 @@ public class AuthService {
             throw new RuntimeException("Please verify your email first");  // frst → first
         }
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
             throw new RuntimeException("Invalid email or password");
         }
 
-        String token = jwtUtil.generateToken(user.getEmail());
+        // The cost factor was raised since this hash was made; upgrade it while we have the plain password
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            String upgraded = passwordHashingService.tryRehash(request.getPassword());
+            if (upgraded != null) {
+                userService.replacePasswordHash(user, upgraded);
+            }
+        }
+
+        String token = jwtUtil.generateToken(user.getEmail(), user.getTokenVersion());
 
         return new AuthResponse(token, user.getEmail(), "Login successful!");
     }
@@ -121,10 +123,7 @@ public class AuthService {
             throw new RuntimeException("User not found");
         }
 
-        String otp = otpUtil.generateOtp();
-        user.setOtp(otp);
-        user.setOtpExpiry(otpUtil.getOtpExpiry());
-        userService.save(user);
+        String otp = otpService.issue(user, OtpPurpose.PASSWORD_RESET);
 
         try {
             emailService.sendPasswordResetEmail(user.getEmail(), otp);
@@ -141,14 +140,15 @@ public class AuthService {
             throw new RuntimeException("User not found");
         }
 
-        if (!otpUtil.verifyOtp(request.getOtp(), user.getOtp(), user.getOtpExpiry())) {
+        // Hash before the single-use code is consumed: a busy hasher must leave the code valid for the retry
+        String encodedPassword = passwordHashingService.encode(request.getNewPassword());
+        if (!otpService.verify(user, OtpPurpose.PASSWORD_RESET, request.getOtp())) {
             throw new RuntimeException("Invalid or expired OTP");
         }
 
-        user.setPassword(passwordEncoder.encode(request.getNewPassword()));
-        user.setOtp(null);
-        user.setOtpExpiry(null);
-        userService.save(user);
+        user.setPassword(encodedPassword);
+        // Sessions signed before the reset must stop working
+        tokenRevocationService.revokeAllTokens(user);
 
         return new MessageResponse("Password reset successful! You can now login with your new password.");
     }
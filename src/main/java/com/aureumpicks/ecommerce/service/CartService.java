@@ -1,37 +1,62 @@
 package com.aureumpicks.ecommerce.service;
 
+import com.aureumpicks.ecommerce.dto.CartBatchResponse;
+import com.aureumpicks.ecommerce.dto.CartOperation;
+import com.aureumpicks.ecommerce.dto.CartOperationResult;
 import com.aureumpicks.ecommerce.dto.CartRequest;
 import com.aureumpicks.ecommerce.dto.CartResponse;
+import com.aureumpicks.ecommerce.dto.ProductDetail;
+import com.aureumpicks.ecommerce.inventory.StockReservationService;
 import com.aureumpicks.ecommerce.model.Cart;
 import com.aureumpicks.ecommerce.model.Product;
 import com.aureumpicks.ecommerce.model.User;
+import com.aureumpicks.ecommerce.repository.CartArchiveRepository;
 import com.aureumpicks.ecommerce.repository.CartRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class CartService {
     @Autowired
     private CartRepository cartRepository;
 
+    @Autowired
+    private CartArchiveRepository cartArchiveRepository;
+
     @Autowired
     private UserService userService;
 
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private CartSummaryService cartSummaryService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Value("${app.cart.batch.max-operations:200}")
+    private int maxBatchOperations;
+
+    @Transactional(readOnly = true)
     public List<CartResponse> getUserCart(String email) {
-        User user = userService.findByEmail(email);  // fndByEmail → findByEmail
-        if (user == null) {
+        List<CartResponse> items = cartRepository.findCartResponsesByUserEmail(email);
+        // Only an empty cart needs the extra query to tell "no items" from "no such user"
+        if (items.isEmpty() && !userService.existsByEmail(email)) {
             throw new RuntimeException("User not found");
         }
-
-        List<Cart> carts = cartRepository.findByUser(user);  // fndByUser → findByUser
-        return carts.stream().map(this::convertToCartResponse).collect(Collectors.toList());
+        return items;
     }
 
     @Transactional
@@ -41,22 +66,16 @@ public class CartService {
             throw new RuntimeException("User not found");
         }
 
-        Product product = productService.getProductById(request.getProductId());
-
-        Cart existingCart = cartRepository.findByUserAndProductId(user, product.getId()).orElse(null);  // fndByUserAndProductId → findByUserAndProductId
-
-        if (existingCart != null) {
-            existingCart.setQuantity(existingCart.getQuantity() + request.getQuantity());
-            Cart updatedCart = cartRepository.save(existingCart);
-            return convertToCartResponse(updatedCart);
-        } else {
-            Cart cart = new Cart();
-            cart.setUser(user);
-            cart.setProduct(product);
-            cart.setQuantity(request.getQuantity());
-            Cart savedCart = cartRepository.save(cart);
-            return convertToCartResponse(savedCart);
+        ProductDetail product = productService.getProductDetail(request.getProductId());
+        if (!stockReservationService.reserve(user.getId(), product.getId(), request.getQuantity())) {
+            throw new RuntimeException("Insufficient stock for " + product.getName());
         }
+
+        boolean created = cartRepository.incrementQuantity(user.getId(), product.getId(), request.getQuantity());
+        cartSummaryService.applyDelta(user.getId(), created ? 1 : 0, request.getQuantity(),
+                product.getPrice().multiply(BigDecimal.valueOf(request.getQuantity())));
+        return cartRepository.findCartResponse(user.getId(), product.getId())
+                .orElseThrow(() -> new RuntimeException("Cart item not found"));
     }
 
     @Transactional
@@ -66,15 +85,21 @@ public class CartService {
             throw new RuntimeException("User not found");
         }
 
-        Cart cart = cartRepository.findById(cartId)  // fndById → findById
+        Cart cart = cartRepository.findLockedWithProductById(cartId)
                 .orElseThrow(() -> new RuntimeException("Cart item not found"));
 
         if (!cart.getUser().getId().equals(user.getId())) {
             throw new RuntimeException("Unauthorized access to cart");
         }
 
+        if (!stockReservationService.adjust(user.getId(), cart.getProduct().getId(), quantity)) {
+            throw new RuntimeException("Insufficient stock for " + cart.getProduct().getName());
+        }
+        int change = quantity - cart.getQuantity();
         cart.setQuantity(quantity);
         Cart updatedCart = cartRepository.save(cart);
+        cartSummaryService.applyDelta(user.getId(), 0, change,
+                cart.getProduct().getPrice().multiply(BigDecimal.valueOf(change)));
         return convertToCartResponse(updatedCart);
     }
 
@@ -85,7 +110,7 @@ public class CartService {
             throw new RuntimeException("User not found");
         }
 
-        Cart cart = cartRepository.findById(cartId)  // fndById → findById
+        Cart cart = cartRepository.findLockedWithProductById(cartId)
                 .orElseThrow(() -> new RuntimeException("Cart item not found"));
 
         if (!cart.getUser().getId().equals(user.getId())) {
@@ -93,6 +118,9 @@ public class CartService {
         }
 
         cartRepository.delete(cart);
+        stockReservationService.release(user.getId(), cart.getProduct().getId(), cart.getQuantity());
+        cartSummaryService.applyDelta(user.getId(), -1, -cart.getQuantity(),
+                cart.getProduct().getPrice().multiply(BigDecimal.valueOf(-cart.getQuantity())));
     }
 
     @Transactional
@@ -103,6 +131,153 @@ public class CartService {
         }
 
         cartRepository.deleteByUser(user);
+        stockReservationService.releaseAll(user.getId());
+        cartSummaryService.reset(user.getId());
+    }
+
+    // Removes the lines of these users that are still idle since the cutoff, optionally copying them to
+    // cart_archives first; returns the number of lines removed. Holds are left alone: they expire long
+    // before a cart counts as abandoned, and any live one belongs to a line written after the cutoff.
+    @Transactional
+    public int purgeIdleLines(List<Long> userIds, LocalDateTime cutoff, boolean archive) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        if (archive) {
+            cartArchiveRepository.archiveIdleLines(userIds, cutoff, LocalDateTime.now());
+        }
+        int removed = cartRepository.deleteIdleLines(userIds, cutoff);
+        cartSummaryService.recompute(userIds);
+        return removed;
+    }
+
+    // Applies the operations in order against an in-memory copy of the cart, then writes only the net
+    // changes: one bulk delete plus one JDBC batch each for updates and inserts. An invalid operation
+    // is reported in its result and skipped; the rest of the batch still applies.
+    @Transactional
+    public CartBatchResponse applyBatch(String email, List<CartOperation> operations) {
+        if (operations.size() > maxBatchOperations) {
+            throw new RuntimeException("At most " + maxBatchOperations + " operations per batch");
+        }
+        User user = userService.findByEmail(email);
+        if (user == null) {
+            throw new RuntimeException("User not found");
+        }
+
+        Map<Long, Cart> linesByProductId = new HashMap<>();
+        Map<Long, Cart> linesById = new HashMap<>();
+        Map<Long, Product> products = new HashMap<>();
+        for (Cart line : cartRepository.findLockedWithProductByUserId(user.getId())) {
+            linesByProductId.put(line.getProduct().getId(), line);
+            linesById.put(line.getId(), line);
+            products.put(line.getProduct().getId(), line.getProduct());
+        }
+        Set<Long> missingProductIds = new HashSet<>();
+        for (CartOperation operation : operations) {
+            if (operation.getType() == CartOperation.Type.ADD && operation.getProductId() != null
+                    && !products.containsKey(operation.getProductId())) {
+                missingProductIds.add(operation.getProductId());
+            }
+        }
+        if (!missingProductIds.isEmpty()) {
+            for (Product product : productService.getProductsByIds(missingProductIds)) {
+                products.put(product.getId(), product);
+            }
+        }
+        stockReservationService.seed(products.values());
+
+        // productId -> quantity; 0 marks a line removed in this batch
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        linesByProductId.forEach((productId, line) -> quantities.put(productId, line.getQuantity()));
+
+        List<CartOperationResult> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            String error = applyOperation(user.getId(), operations.get(i), quantities, linesById, products);
+            results.add(new CartOperationResult(i, error == null, error));
+        }
+
+        List<Long> deletedIds = new ArrayList<>();
+        Map<Long, Integer> updatedQuantities = new HashMap<>();
+        Map<Long, Integer> insertedQuantities = new LinkedHashMap<>();
+        int lineChange = 0;
+        int itemChange = 0;
+        BigDecimal amountChange = BigDecimal.ZERO;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Cart line = linesByProductId.get(entry.getKey());
+            int before = line == null ? 0 : line.getQuantity();
+            int after = entry.getValue();
+            if (before == after) {
+                continue;
+            }
+            if (line == null) {
+                insertedQuantities.put(entry.getKey(), after);
+                lineChange++;
+            } else if (after == 0) {
+                deletedIds.add(line.getId());
+                lineChange--;
+            } else {
+                updatedQuantities.put(line.getId(), after);
+            }
+            itemChange += after - before;
+            amountChange = amountChange.add(products.get(entry.getKey()).getPrice().multiply(BigDecimal.valueOf(after - before)));
+        }
+
+        if (!deletedIds.isEmpty()) {
+            cartRepository.deleteAllByIdInBatch(deletedIds);
+        }
+        cartRepository.batchUpdateQuantities(updatedQuantities);
+        cartRepository.batchInsertLines(user.getId(), insertedQuantities);
+        if (lineChange != 0 || itemChange != 0) {
+            cartSummaryService.applyDelta(user.getId(), lineChange, itemChange, amountChange);
+        }
+
+        return new CartBatchResponse(results, cartRepository.findCartResponsesByUserEmail(email));
+    }
+
+    // Returns the error message, or null if the operation was applied
+    private String applyOperation(Long userId, CartOperation operation, Map<Long, Integer> quantities,
+                                  Map<Long, Cart> linesById, Map<Long, Product> products) {
+        if (operation.getType() == CartOperation.Type.ADD) {
+            if (operation.getProductId() == null) {
+                return "Product ID is required";
+            }
+            if (operation.getQuantity() == null || operation.getQuantity() < 1) {
+                return "Quantity must be at least 1";
+            }
+            if (!products.containsKey(operation.getProductId())) {
+                return "Product not found with id: " + operation.getProductId();
+            }
+            if (!stockReservationService.reserve(userId, operation.getProductId(), operation.getQuantity())) {
+                return "Insufficient stock for " + products.get(operation.getProductId()).getName();
+            }
+            quantities.merge(operation.getProductId(), operation.getQuantity(), Integer::sum);
+            return null;
+        }
+
+        Long productId = operation.getProductId();
+        if (operation.getCartId() != null) {
+            Cart line = linesById.get(operation.getCartId());
+            productId = line == null ? null : line.getProduct().getId();
+        }
+        if (productId == null || quantities.getOrDefault(productId, 0) == 0) {
+            return "Cart item not found";
+        }
+        int current = quantities.get(productId);
+        if (operation.getType() == CartOperation.Type.REMOVE) {
+            stockReservationService.release(userId, productId, current);
+            quantities.put(productId, 0);
+            return null;
+        }
+        if (operation.getQuantity() == null || operation.getQuantity() < 1) {
+            return "Quantity must be at least 1";
+        }
+        int change = operation.getQuantity() - current;
+        if (change > 0 && !stockReservationService.reserve(userId, productId, change)) {
+            return "Insufficient stock for " + products.get(productId).getName();
+        }
+        stockReservationService.release(userId, productId, -change);
+        quantities.put(productId, operation.getQuantity());
+        return null;
     }
 
     private CartResponse convertToCartResponse(Cart cart) {
@@ -0,0 +1,105 @@
+package com.aureumpicks.ecommerce.service;
+
+import com.aureumpicks.ecommerce.dto.CartSummaryResponse;
+import com.aureumpicks.ecommerce.event.ProductChangedEvent;
+import com.aureumpicks.ecommerce.model.CartSummary;
+import com.aureumpicks.ecommerce.model.User;
+import com.aureumpicks.ecommerce.repository.CartSummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+// Keeps cart_summaries in step with the carts table. Writers pass the change they just made, so an
+// update never rescans the cart; a missing row (pre-existing carts) is built from the cart once.
+@Service
+public class CartSummaryService {
+
+    @Autowired
+    private CartSummaryRepository cartSummaryRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Transactional
+    public CartSummaryResponse getSummary(String email) {
+        CartSummary summary = cartSummaryRepository.findByUserEmail(email).orElse(null);
+        if (summary == null) {
+            User user = userService.findByEmail(email);
+            if (user == null) {
+                throw new RuntimeException("User not found");
+            }
+            summary = build(user.getId());
+            if (!cartSummaryRepository.insertIfAbsent(summary)) {
+                summary = cartSummaryRepository.findById(user.getId()).orElse(summary);
+            }
+        }
+        return new CartSummaryResponse(summary.getItemCount(), summary.getLineCount(), summary.getSubtotal(),
+                summary.getVersion(), summary.getUpdatedAt());
+    }
+
+    // Must run in the transaction that changed the cart rows. The first write for a user builds the row
+    // from the cart, which already includes this change; if a concurrent writer built it first, its row
+    // can't see our uncommitted change, so the delta is applied on top instead.
+    @Transactional
+    public void applyDelta(Long userId, int lines, int items, BigDecimal amount) {
+        LocalDateTime now = LocalDateTime.now();
+        if (cartSummaryRepository.applyDelta(userId, lines, items, amount, now) == 0
+                && !cartSummaryRepository.insertIfAbsent(build(userId))) {
+            cartSummaryRepository.applyDelta(userId, lines, items, amount, now);
+        }
+    }
+
+    @Transactional
+    public void reset(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (cartSummaryRepository.reset(userId, now) == 0 && !cartSummaryRepository.insertIfAbsent(build(userId))) {
+            cartSummaryRepository.reset(userId, now);
+        }
+    }
+
+    @Transactional
+    public void recompute(Collection<Long> userIds) {
+        if (!userIds.isEmpty()) {
+            cartSummaryRepository.recompute(userIds, LocalDateTime.now());
+        }
+    }
+
+    // Call before the product's cart lines are deleted; the subtraction reads them
+    @Transactional
+    public void removeProduct(Long productId) {
+        cartSummaryRepository.removeProduct(productId, LocalDateTime.now());
+    }
+
+    // Product writes are outside any cart transaction; shift affected subtotals by the price change
+    @EventListener
+    @Transactional
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() != ProductChangedEvent.Type.UPDATED || event.getPreviousPrice() == null) {
+            return;
+        }
+        applyPriceChange(event.getProductId(), event.getProduct().getPrice().subtract(event.getPreviousPrice()));
+    }
+
+    // Shifts every cart holding the product by quantity * delta; bulk imports call this per updated product
+    @Transactional
+    public void applyPriceChange(Long productId, BigDecimal delta) {
+        if (delta.signum() != 0) {
+            cartSummaryRepository.applyPriceChange(productId, delta, LocalDateTime.now());
+        }
+    }
+
+    private CartSummary build(Long userId) {
+        Object[] totals = cartSummaryRepository.aggregateCart(userId).get(0);
+        return new CartSummary(userId, ((Number) totals[0]).intValue(), ((Number) totals[1]).intValue(),
+                toBigDecimal(totals[2]), 1L, LocalDateTime.now());
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+}
@@ -0,0 +1,165 @@
+package com.aureumpicks.ecommerce.service;
+
+import com.aureumpicks.ecommerce.dto.CatalogStamp;
+import com.aureumpicks.ecommerce.dto.ProductSummary;
+import com.aureumpicks.ecommerce.event.ProductChangedEvent;
+import com.aureumpicks.ecommerce.event.ProductStockFlushedEvent;
+import com.aureumpicks.ecommerce.event.ProductsImportedEvent;
+import com.aureumpicks.ecommerce.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Validators for the public catalog endpoints. A single product's ETag comes from its id and updatedAt, and
+ * a category list's from the ids and updatedAt of its rows, so both always describe exactly the entity that
+ * would be served (cached or not). The full catalog has no cached copy to derive one from, so it uses a
+ * version counter held in memory: bumped after every product write here, and re-checked against the
+ * table's row count and newest updated_at every refresh-ms so writes from stock flushes and other instances
+ * are picked up within that interval.
+ */
+@Service
+public class CatalogVersionService {
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${app.http.catalog.max-age-seconds:60}")
+    private long maxAgeSeconds;
+
+    // Shared caches (CDN) only; browsers use max-age
+    @Value("${app.http.catalog.cdn-max-age-seconds:300}")
+    private long cdnMaxAgeSeconds;
+
+    @Value("${app.http.catalog.stale-while-revalidate-seconds:300}")
+    private long staleWhileRevalidateSeconds;
+
+    // Versions restart at 0 on boot; the boot time keeps an old run's ETags from matching the new run's
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+    private volatile Instant lastModified = Instant.now();
+    private volatile CatalogStamp lastStamp;
+
+    // After commit, so a request that sees the new version also reads the new rows
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        bump(Instant.now());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        bump(Instant.now());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockFlushed(ProductStockFlushedEvent event) {
+        bump(Instant.now());
+    }
+
+    // Baseline at startup; later refreshes compare against it
+    @PostConstruct
+    public void init() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${app.http.catalog.refresh-ms:5000}",
+            initialDelayString = "${app.http.catalog.refresh-ms:5000}")
+    public void refresh() {
+        CatalogStamp stamp = productRepository.findCatalogStamp();
+        CatalogStamp previous = lastStamp;
+        lastStamp = stamp;
+        if (previous != null && !Objects.equals(previous, stamp)) {
+            bump(Instant.now());
+        } else if (previous == null && stamp.getLastUpdatedAt() != null) {
+            lastModified = toInstant(stamp.getLastUpdatedAt());
+        }
+    }
+
+    private void bump(Instant at) {
+        lastModified = at;
+        version.incrementAndGet();
+    }
+
+    public String catalogETag() {
+        return "\"" + epoch + "-" + version.get() + "\"";
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    // Null for rows written before updated_at existed; those are served without validators
+    public String productETag(Long id, LocalDateTime updatedAt) {
+        if (updatedAt == null) {
+            return null;
+        }
+        return "\"p" + id + "-" + Long.toString(toNanos(updatedAt), 36) + "\"";
+    }
+
+    // 64-bit mix over (id, updatedAt) of every row in order, plus the count; no serialization needed
+    public String listETag(List<ProductSummary> products) {
+        long hash = 0xcbf29ce484222325L ^ products.size();
+        for (ProductSummary product : products) {
+            hash = mix(hash, product.getId() == null ? 0 : product.getId());
+            hash = mix(hash, product.getUpdatedAt() == null ? 0 : toNanos(product.getUpdatedAt()));
+        }
+        return "\"l" + Long.toUnsignedString(hash, 36) + "\"";
+    }
+
+    // Newest updatedAt in the list, or null if none is known
+    public Instant listLastModified(List<ProductSummary> products) {
+        return products.stream()
+                .map(ProductSummary::getUpdatedAt)
+                .filter(Objects::nonNull)
+                .max(LocalDateTime::compareTo)
+                .map(CatalogVersionService::toInstant)
+                .orElse(null);
+    }
+
+    public CacheControl cacheControl() {
+        return CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds))
+                .sMaxAge(Duration.ofSeconds(cdnMaxAgeSeconds))
+                .staleWhileRevalidate(Duration.ofSeconds(staleWhileRevalidateSeconds))
+                .cachePublic();
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("version", version.get());
+        metrics.put("lastModified", lastModified.toString());
+        metrics.put("productCount", lastStamp == null ? null : lastStamp.getProductCount());
+        return metrics;
+    }
+
+    public static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private static long toNanos(LocalDateTime dateTime) {
+        Instant instant = toInstant(dateTime);
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    private static long mix(long hash, long value) {
+        hash ^= value;
+        hash *= 0x100000001b3L;
+        return hash ^ (hash >>> 29);
+    }
+}
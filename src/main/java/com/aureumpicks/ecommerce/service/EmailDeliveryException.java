@@ -0,0 +1,35 @@
+package com.aureumpicks.ecommerce.service;
+
+// Raised when the email provider rejects or fails a send; retryable failures go back into the outbox
+public class EmailDeliveryException extends RuntimeException {
+    private final boolean retryable;
+    private final int statusCode;
+    private final long retryAfterMillis;
+
+    public EmailDeliveryException(String message, boolean retryable) {
+        this(message, retryable, 0, 0);
+    }
+
+    public EmailDeliveryException(String message, boolean retryable, int statusCode, long retryAfterMillis) {
+        super(message);
+        this.retryable = retryable;
+        this.statusCode = statusCode;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    public boolean isThrottled() {
+        return statusCode == 429;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
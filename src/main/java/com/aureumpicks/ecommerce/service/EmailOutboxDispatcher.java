@@ -0,0 +1,208 @@
+package com.aureumpicks.ecommerce.service;
+
+import com.aureumpicks.ecommerce.model.EmailOutbox;
+import com.aureumpicks.ecommerce.util.AdaptiveRateLimiter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the email outbox. Everything that became due within one poll interval is claimed together,
+ * split into Brevo requests of up to max-batch-size messages, and sent on a fixed number of sender
+ * threads, paced by an adaptive limiter that backs off on 429s.
+ */
+@Component
+public class EmailOutboxDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${app.email.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.email.outbox.concurrency:4}")
+    private int concurrency;
+
+    // Rows claimed per poll
+    @Value("${app.email.outbox.batch-size:200}")
+    private int batchSize;
+
+    // How long one poll keeps claiming full batches before yielding the shared scheduler thread; the rest of
+    // a backlog is picked up by the next poll
+    @Value("${app.email.outbox.max-tick-ms:5000}")
+    private long maxTickMillis;
+
+    // Messages coalesced into one Brevo request (messageVersions)
+    @Value("${app.email.outbox.max-batch-size:50}")
+    private int maxBatchSize;
+
+    @Value("${app.email.rate-limit.initial-per-second:10}")
+    private double initialRate;
+
+    @Value("${app.email.rate-limit.min-per-second:0.5}")
+    private double minRate;
+
+    @Value("${app.email.rate-limit.max-per-second:50}")
+    private double maxRate;
+
+    @Value("${app.email.rate-limit.increase-per-success:0.5}")
+    private double rateIncrease;
+
+    private Executor senders;
+    private AdaptiveRateLimiter rateLimiter;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder messagesSent = new LongAdder();
+    private final LongAdder failedRequests = new LongAdder();
+    private final LongAdder throttledRequests = new LongAdder();
+    private final LongAdder batchedMessages = new LongAdder();
+    private final LongAdder splitBatches = new LongAdder();
+    private final LongAdder totalLatencyMillis = new LongAdder();
+    private final AtomicLong maxLatencyMillis = new AtomicLong();
+    private final AtomicInteger lastBatchSize = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // A virtual thread per batch, still capped at concurrency requests in flight to Brevo
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("email-sender-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(concurrency);
+            executor.setTaskTerminationTimeout(10_000);
+            senders = executor;
+        } else {
+            AtomicInteger threadNumber = new AtomicInteger();
+            senders = Executors.newFixedThreadPool(concurrency, runnable -> {
+                Thread thread = new Thread(runnable, "email-sender-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        rateLimiter = new AdaptiveRateLimiter(initialRate, minRate, maxRate, rateIncrease);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (senders instanceof ExecutorService pool) {
+            pool.shutdown();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        } else if (senders instanceof SimpleAsyncTaskExecutor executor) {
+            executor.close();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        List<EmailOutbox> claimed;
+        do {
+            claimed = emailOutboxService.claimDue(batchSize);
+            List<CompletableFuture<Void>> sends = new ArrayList<>();
+            for (int from = 0; from < claimed.size(); from += maxBatchSize) {
+                List<EmailOutbox> batch = claimed.subList(from, Math.min(from + maxBatchSize, claimed.size()));
+                sends.add(CompletableFuture.runAsync(() -> send(batch), senders));
+            }
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).join();
+        } while (claimed.size() == batchSize
+                && TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < maxTickMillis);
+    }
+
+    private void send(List<EmailOutbox> batch) {
+        List<Long> ids = batch.stream().map(EmailOutbox::getId).collect(Collectors.toList());
+        long started = System.nanoTime();
+        try {
+            rateLimiter.acquire();
+            started = System.nanoTime();
+            emailService.deliverBatch(batch);
+            rateLimiter.onSuccess();
+            recordRequest(batch.size(), started);
+            messagesSent.add(batch.size());
+            emailOutboxService.markSent(ids);
+        } catch (EmailDeliveryException e) {
+            recordRequest(batch.size(), started);
+            if (e.isThrottled()) {
+                throttledRequests.increment();
+                rateLimiter.onThrottled(e.getRetryAfterMillis());
+                logger.warn("Brevo throttled a batch of {}, rate now {}/s", batch.size(), rateLimiter.getRate());
+                emailOutboxService.release(ids, e.getRetryAfterMillis());
+                return;
+            }
+            failedRequests.increment();
+            if (!e.isRetryable() && batch.size() > 1) {
+                // One bad recipient rejects the whole request; halve until the rejected messages stand alone
+                splitBatches.increment();
+                logger.warn("Batch of {} emails rejected, retrying in halves: {}", batch.size(), e.getMessage());
+                int half = batch.size() / 2;
+                send(batch.subList(0, half));
+                send(batch.subList(half, batch.size()));
+                return;
+            }
+            logger.warn("Batch of {} emails failed: {}", batch.size(), e.getMessage());
+            emailOutboxService.markFailed(ids, e.getMessage(), e.isRetryable());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emailOutboxService.release(ids, 0);
+        } catch (Exception e) {
+            failedRequests.increment();
+            logger.error("Batch of {} emails failed", batch.size(), e);
+            emailOutboxService.markFailed(ids, e.getMessage(), true);
+        }
+    }
+
+    private void recordRequest(int size, long startedNanos) {
+        long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+        requests.increment();
+        batchedMessages.add(size);
+        lastBatchSize.set(size);
+        totalLatencyMillis.add(latencyMillis);
+        maxLatencyMillis.accumulateAndGet(latencyMillis, Math::max);
+    }
+
+    public Map<String, Object> getMetrics() {
+        long requestCount = requests.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("requests", requestCount);
+        metrics.put("messagesSent", messagesSent.sum());
+        metrics.put("failedRequests", failedRequests.sum());
+        metrics.put("throttledRequests", throttledRequests.sum());
+        metrics.put("splitBatches", splitBatches.sum());
+        metrics.put("lastBatchSize", lastBatchSize.get());
+        metrics.put("averageBatchSize", requestCount == 0 ? 0.0 : (double) batchedMessages.sum() / requestCount);
+        metrics.put("averageLatencyMillis", requestCount == 0 ? 0.0 : (double) totalLatencyMillis.sum() / requestCount);
+        metrics.put("maxLatencyMillis", maxLatencyMillis.get());
+        metrics.put("currentRatePerSecond", rateLimiter.getRate());
+        return metrics;
+    }
+}
@@ -0,0 +1,112 @@
+package com.aureumpicks.ecommerce.service;
+
+import com.aureumpicks.ecommerce.model.EmailOutbox;
+import com.aureumpicks.ecommerce.model.EmailType;
+import com.aureumpicks.ecommerce.repository.EmailOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Service
+public class EmailOutboxService {
+    private static final TypeReference<Map<String, Object>> PARAMS_TYPE = new TypeReference<>() {};
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.email.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${app.email.outbox.backoff-base-ms:5000}")
+    private long backoffBaseMs;
+
+    @Value("${app.email.outbox.backoff-max-ms:600000}")
+    private long backoffMaxMs;
+
+    // How long a claimed row stays invisible to other dispatchers; a crashed send is retried after this
+    @Value("${app.email.outbox.lease-ms:120000}")
+    private long leaseMs;
+
+    public EmailOutbox enqueue(EmailType type, String recipient, Map<String, ?> params) {
+        return enqueue(type, recipient, LocaleContextHolder.getLocale(), params);
+    }
+
+    public EmailOutbox enqueue(EmailType type, String recipient, Locale locale, Map<String, ?> params) {
+        EmailOutbox email = new EmailOutbox();
+        email.setType(type);
+        email.setRecipient(recipient);
+        email.setLocale(locale == null ? null : locale.toLanguageTag());
+        email.setParams(objectMapper.writeValueAsString(params));
+        email.setStatus(EmailOutbox.Status.PENDING);
+        email.setNextAttemptAt(LocalDateTime.now());
+        return emailOutboxRepository.save(email);
+    }
+
+    public Map<String, Object> readParams(EmailOutbox email) {
+        return email.getParams() == null ? Map.of() : objectMapper.readValue(email.getParams(), PARAMS_TYPE);
+    }
+
+    public Locale readLocale(EmailOutbox email) {
+        return email.getLocale() == null ? null : Locale.forLanguageTag(email.getLocale());
+    }
+
+    // Claims up to batchSize due rows by pushing their next attempt past the lease and counting the attempt
+    @Transactional
+    public List<EmailOutbox> claimDue(int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutbox> due = emailOutboxRepository.findDueForUpdate(EmailOutbox.Status.PENDING, now, Limit.of(batchSize));
+        for (EmailOutbox email : due) {
+            email.setAttempts(email.getAttempts() + 1);
+            email.setNextAttemptAt(now.plusNanos(leaseMs * 1_000_000));
+        }
+        return due;
+    }
+
+    @Transactional
+    public void markSent(List<Long> ids) {
+        emailOutboxRepository.markSent(ids, LocalDateTime.now());
+    }
+
+    // The provider throttled us: not the email's fault, so hand the attempt back and retry after the pause
+    @Transactional
+    public void release(List<Long> ids, long delayMillis) {
+        LocalDateTime retryAt = LocalDateTime.now().plusNanos(Math.max(delayMillis, 0) * 1_000_000);
+        for (EmailOutbox email : emailOutboxRepository.findAllById(ids)) {
+            email.setAttempts(Math.max(0, email.getAttempts() - 1));
+            email.setNextAttemptAt(retryAt);
+        }
+    }
+
+    // Exponential backoff with jitter; permanent failures and exhausted retries are dead-lettered
+    @Transactional
+    public void markFailed(List<Long> ids, String error, boolean retryable) {
+        for (EmailOutbox email : emailOutboxRepository.findAllById(ids)) {
+            email.setLastError(error == null ? null : error.substring(0, Math.min(error.length(), 1000)));
+            if (!retryable || email.getAttempts() >= maxAttempts) {
+                email.setStatus(EmailOutbox.Status.DEAD);
+                continue;
+            }
+            long backoff = Math.min(backoffMaxMs, backoffBaseMs << Math.min(email.getAttempts() - 1, 20));
+            long jitter = ThreadLocalRandom.current().nextLong(backoff / 4 + 1);
+            email.setNextAttemptAt(LocalDateTime.now().plusNanos((backoff + jitter) * 1_000_000));
+        }
+    }
+
+    public long countByStatus(EmailOutbox.Status status) {
+        return emailOutboxRepository.countByStatus(status);
+    }
+}
@@ -1,9 +1,20 @@
 package com.aureumpicks.ecommerce.service;
 
+import com.aureumpicks.ecommerce.model.EmailOutbox;
+import com.aureumpicks.ecommerce.model.EmailType;
 import okhttp3.*;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import jakarta.annotation.PostConstruct;
+import tools.jackson.databind.ObjectMapper;
 import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,307 +33,159 @@ public class EmailService {
     @Value("${app.name:AureumPicks}")
     private String appName;
 
-    private static final OkHttpClient client = new OkHttpClient.Builder()
-            .connectTimeout(10, TimeUnit.SECONDS)
-            .readTimeout(30, TimeUnit.SECONDS)
-            .writeTimeout(30, TimeUnit.SECONDS)
-            .connectionPool(new ConnectionPool(5, 5, TimeUnit.MINUTES))  // Max 5 connections
-            .build();
+    @Value("${brevo.api.url:https://api.brevo.com/v3/smtp/email}")
+    private String brevoApiUrl;
 
-    public void sendVerificationEmail(String toEmail, String otp) {
-        logger.info("=== SENDING VERIFICATION EMAIL ===");
-        logger.info("To: {}", toEmail);
-        logger.info("OTP: {}", otp);
+    // Keep-alive connections to Brevo; matches the dispatcher's send concurrency so every sender reuses one
+    @Value("${app.email.outbox.concurrency:4}")
+    private int maxIdleConnections;
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EmailTemplateEngine templateEngine;
 
-        String subject = "Verify Your Email - " + appName;
-        String htmlContent = getVerificationEmailTemplate(otp);
-        sendEmail(toEmail, subject, htmlContent);
+    private OkHttpClient client;
+
+    @PostConstruct
+    public void init() {
+        client = new OkHttpClient.Builder()
+                .connectTimeout(10, TimeUnit.SECONDS)
+                .readTimeout(30, TimeUnit.SECONDS)
+                .writeTimeout(30, TimeUnit.SECONDS)
+                .connectionPool(new ConnectionPool(maxIdleConnections, 5, TimeUnit.MINUTES))
+                .build();
     }
 
-    public void sendPasswordResetEmail(String toEmail, String otp) {
-        logger.info("=== SENDING PASSWORD RESET EMAIL ===");
-        logger.info("To: {}", toEmail);
+    // Queues the email in the outbox; EmailOutboxDispatcher delivers it off the request thread
+    public void sendVerificationEmail(String toEmail, String otp) {
+        logger.info("Queueing verification email to {}", toEmail);
+        emailOutboxService.enqueue(EmailType.VERIFICATION, toEmail, Map.of("otp", otp));
+    }
 
-        String subject = "Password Reset Request - " + appName;
-        String htmlContent = getPasswordResetTemplate(otp);
-        sendEmail(toEmail, subject, htmlContent);
+    public void sendPasswordResetEmail(String toEmail, String otp) {
+        logger.info("Queueing password reset email to {}", toEmail);
+        emailOutboxService.enqueue(EmailType.PASSWORD_RESET, toEmail, Map.of("otp", otp));
     }
 
-    //  VERIFICATION EMAIL TEMPLATE
-    private String getVerificationEmailTemplate(String otp) {
-        return String.format("""
-            <!DOCTYPE html>
-            <html>
-            <head>
-                <meta charset="UTF-8">
-                <meta name="viewport" content="width=device-width, initial-scale=1.0">
-                <style>
-                    body { 
-                        font-family: 'Segoe UI', Tahoma, Geneva, Verdana, sans-serif; 
-                        background-color: #f4f4f4; 
-                        margin: 0; 
-                        padding: 0; 
-                    }
-                    .container { 
-                        max-width: 600px; 
-                        margin: 40px auto; 
-                        background: white; 
-                        border-radius: 12px; 
-                        overflow: hidden;
-                        box-shadow: 0 4px 20px rgba(0,0,0,0.1);
-                    }
-                    .header { 
-                        background: linear-gradient(135deg, #C9A961 0%%, #A68B4C 100%%); 
-                        color: white; 
-                        padding: 40px 20px; 
-                        text-align: center; 
-                    }
-                    .header h1 { 
-                        margin: 0; 
-                        font-size: 32px; 
-                        letter-spacing: 2px;
-                        font-weight: 300;
-                    }
-                    .content { 
-                        padding: 40px 30px; 
-                    }
-                    .otp-box { 
-                        background: #FAF8F3; 
-                        border: 2px dashed #C9A961; 
-                        border-radius: 8px; 
-                        padding: 30px; 
-                        text-align: center; 
-                        margin: 30px 0; 
-                    }
-                    .otp { 
-                        font-size: 36px; 
-                        font-weight: bold; 
-                        color: #2A2A2A; 
-                        letter-spacing: 8px;
-                        font-family: 'Courier New', monospace;
-                    }
-                    .footer { 
-                        background: #2A2A2A; 
-                        color: #A69B8C; 
-                        text-align: center; 
-                        padding: 30px 20px; 
-                        font-size: 12px; 
-                    }
-                    .footer a { 
-                        color: #C9A961; 
-                        text-decoration: none; 
-                    }
-                    p { 
-                        line-height: 1.8; 
-                        color: #555; 
-                        margin: 15px 0; 
-                    }
-                    .greeting { 
-                        font-size: 18px; 
-                        color: #2A2A2A; 
-                        font-weight: 500; 
-                    }
-                    .expiry { 
-                        color: #C9A961; 
-                        font-weight: 600; 
-                        text-align: center; 
-                    }
-                </style>
-            </head>
-            <body>
-                <div class="container">
-                    <div class="header">
-                        <h1>AUREUM</h1>
-                        <p style="margin: 10px 0 0 0; color: rgba(255,255,255,0.9); font-size: 14px;">Curated Luxury</p>
-                    </div>
-                    <div class="content">
-                        <p class="greeting">Welcome to AureumPicks!</p>
-                        <p>Thank you for creating an account with us. To complete your registration, please verify your email address using the OTP below:</p>
-                        
-                        <div class="otp-box">
-                            <p style="margin: 0 0 10px 0; color: #A69B8C; font-size: 14px; text-transform: uppercase; letter-spacing: 1px;">Your Verification Code</p>
-                            <div class="otp">%s</div>
-                        </div>
-                        
-                        <p class="expiry">⏱️ This code expires in 10 minutes</p>
-                        
-                        <p>If you didn't create an account with AureumPicks, please ignore this email.</p>
-                        
-                        <p style="margin-top: 30px; color: #2A2A2A;">Best regards,<br><strong>The AureumPicks Team</strong></p>
-                    </div>
-                    <div class="footer">
-                        <p>© 2025 AureumPicks. All rights reserved.</p>
-                        <p>This is an automated email. Please do not reply.</p>
-                    </div>
-                </div>
-            </body>
-            </html>
-            """, otp);
+    // items: one map per line with name, quantity and lineTotal
+    public void sendOrderConfirmationEmail(String toEmail, String orderNumber, List<Map<String, Object>> items, String total) {
+        logger.info("Queueing order confirmation email for order {} to {}", orderNumber, toEmail);
+        emailOutboxService.enqueue(EmailType.ORDER_CONFIRMATION, toEmail,
+                Map.of("orderNumber", orderNumber, "items", items, "total", total));
     }
 
-    //  PASSWORD RESET TEMPLATE
-    private String getPasswordResetTemplate(String otp) {
-        return String.format("""
-            <!DOCTYPE html>
-            <html>
-            <head>
-                <meta charset="UTF-8">
-                <meta name="viewport" content="width=device-width, initial-scale=1.0">
-                <style>
-                    body { 
-                        font-family: 'Segoe UI', Tahoma, Geneva, Verdana, sans-serif; 
-                        background-color: #f4f4f4; 
-                        margin: 0; 
-                        padding: 0; 
-                    }
-                    .container { 
-                        max-width: 600px; 
-                        margin: 40px auto; 
-                        background: white; 
-                        border-radius: 12px; 
-                        overflow: hidden;
-                        box-shadow: 0 4px 20px rgba(0,0,0,0.1);
-                    }
-                    .header { 
-                        background: linear-gradient(135deg, #C9A961 0%%, #A68B4C 100%%); 
-                        color: white; 
-                        padding: 40px 20px; 
-                        text-align: center; 
-                    }
-                    .header h1 { 
-                        margin: 0; 
-                        font-size: 32px; 
-                        letter-spacing: 2px;
-                        font-weight: 300;
-                    }
-                    .content { 
-                        padding: 40px 30px; 
-                    }
-                    .otp-box { 
-                        background: #FFF5E6; 
-                        border: 2px solid #C9A961; 
-                        border-radius: 8px; 
-                        padding: 30px; 
-                        text-align: center; 
-                        margin: 30px 0; 
-                    }
-                    .otp { 
-                        font-size: 36px; 
-                        font-weight: bold; 
-                        color: #2A2A2A; 
-                        letter-spacing: 8px;
-                        font-family: 'Courier New', monospace;
-                    }
-                    .warning { 
-                        background: #FFF3CD; 
-                        border-left: 4px solid #FFC107; 
-                        padding: 15px; 
-                        margin: 20px 0; 
-                        border-radius: 4px;
-                    }
-                    .footer { 
-                        background: #2A2A2A; 
-                        color: #A69B8C; 
-                        text-align: center; 
-                        padding: 30px 20px; 
-                        font-size: 12px; 
-                    }
-                    p { 
-                        line-height: 1.8; 
-                        color: #555; 
-                        margin: 15px 0; 
-                    }
-                    .greeting { 
-                        font-size: 18px; 
-                        color: #2A2A2A; 
-                        font-weight: 500; 
-                    }
-                    .expiry { 
-                        color: #C9A961; 
-                        font-weight: 600; 
-                        text-align: center; 
-                    }
-                </style>
-            </head>
-            <body>
-                <div class="container">
-                    <div class="header">
-                        <h1>AUREUM</h1>
-                        <p style="margin: 10px 0 0 0; color: rgba(255,255,255,0.9); font-size: 14px;">Curated Luxury</p>
-                    </div>
-                    <div class="content">
-                        <p class="greeting">Password Reset Request</p>
-                        <p>We received a request to reset your AureumPicks account password. Use the OTP below to proceed:</p>
-                        
-                        <div class="otp-box">
-                            <p style="margin: 0 0 10px 0; color: #A69B8C; font-size: 14px; text-transform: uppercase; letter-spacing: 1px;">Your Reset Code</p>
-                            <div class="otp">%s</div>
-                        </div>
-                        
-                        <p class="expiry">⏱️ This code expires in 10 minutes</p>
-                        
-                        <div class="warning">
-                            <strong>⚠️ Security Notice:</strong><br>
-                            If you didn't request a password reset, please ignore this email. Your password will remain unchanged.
-                        </div>
-                        
-                        <p style="margin-top: 30px; color: #2A2A2A;">Best regards,<br><strong>The AureumPicks Team</strong></p>
-                    </div>
-                    <div class="footer">
-                        <p>© 2025 AureumPicks. All rights reserved.</p>
-                        <p>This is an automated email. Please do not reply.</p>
-                    </div>
-                </div>
-            </body>
-            </html>
-            """, otp);
+    // trackingUrl may be null; otherwise it must be an absolute http(s) link, since it becomes the button's href
+    public void sendShippingEmail(String toEmail, String orderNumber, String carrier, String trackingNumber, String trackingUrl) {
+        if (trackingUrl != null && !isWebLink(trackingUrl)) {
+            throw new IllegalArgumentException("Tracking URL must be an http or https link");
+        }
+        logger.info("Queueing shipping email for order {} to {}", orderNumber, toEmail);
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("orderNumber", orderNumber);
+        params.put("carrier", carrier);
+        params.put("trackingNumber", trackingNumber);
+        params.put("trackingUrl", trackingUrl);
+        emailOutboxService.enqueue(EmailType.SHIPPING_NOTIFICATION, toEmail, params);
     }
 
-    private void sendEmail(String toEmail, String subject, String htmlContent) {
+    private static boolean isWebLink(String url) {
         try {
-            logger.info("Preparing to send email...");
+            URI uri = new URI(url.trim());
+            String scheme = uri.getScheme();
+            return scheme != null && uri.getHost() != null
+                    && (scheme.equalsIgnoreCase("http") || scheme.equalsIgnoreCase("https"));
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
 
-            String json = String.format(
-                    "{\"sender\":{\"email\":\"%s\",\"name\":\"%s\"}," +
-                            "\"to\":[{\"email\":\"%s\"}]," +
-                            "\"subject\":\"%s\"," +
-                            "\"htmlContent\":\"%s\"}",
-                    fromEmail, appName, toEmail, subject,
-                    htmlContent.replace("\"", "\\\"").replace("\n", "\\n").replace("\r", "")
-            );
+    // Renders and sends one outbox row synchronously; throws EmailDeliveryException on failure
+    public void deliver(EmailOutbox email) {
+        deliverBatch(List.of(email));
+    }
 
-            RequestBody body = RequestBody.create(
-                    json,
-                    MediaType.get("application/json; charset=utf-8")
-            );
+    // One Brevo call for the whole batch: each email becomes a messageVersion with its own recipient,
+    // subject and rendered HTML. Throws EmailDeliveryException if the call fails (all-or-nothing).
+    public void deliverBatch(List<EmailOutbox> emails) {
+        List<Map<String, Object>> versions = new ArrayList<>(emails.size());
+        for (EmailOutbox email : emails) {
+            Map<String, Object> params = emailOutboxService.readParams(email);
+            Map<String, Object> version = new LinkedHashMap<>();
+            version.put("to", List.of(Map.of("email", email.getRecipient())));
+            version.put("subject", renderSubject(email, params));
+            version.put("htmlContent", renderHtml(email, params));
+            versions.add(version);
+        }
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("sender", Map.of("email", fromEmail, "name", appName));
+        if (versions.size() == 1) {
+            payload.putAll(versions.get(0));
+        } else {
+            // Brevo requires global subject/htmlContent before versions may override them
+            payload.put("subject", versions.get(0).get("subject"));
+            payload.put("htmlContent", versions.get(0).get("htmlContent"));
+            payload.put("messageVersions", versions);
+        }
+        post(objectMapper.writeValueAsString(payload), emails.size());
+    }
 
-            Request request = new Request.Builder()
-                    .url("https://api.brevo.com/v3/smtp/email")
-                    .addHeader("api-key", brevoApiKey)
-                    .addHeader("Content-Type", "application/json")
-                    .addHeader("accept", "application/json")
-                    .post(body)
-                    .build();
+    private String renderSubject(EmailOutbox email, Map<String, Object> params) {
+        return templateEngine.renderSubject(email.getType(), emailOutboxService.readLocale(email), params);
+    }
 
-            logger.info("Making API request to Brevo...");
+    private String renderHtml(EmailOutbox email, Map<String, Object> params) {
+        return templateEngine.renderHtml(email.getType(), emailOutboxService.readLocale(email), params);
+    }
 
-            try (Response response = client.newCall(request).execute()) {
-                logger.info("Response Status: {}", response.code());
+    private void post(String json, int messageCount) {
+        RequestBody body = RequestBody.create(
+                json,
+                MediaType.get("application/json; charset=utf-8")
+        );
+
+        Request request = new Request.Builder()
+                .url(brevoApiUrl)
+                .addHeader("api-key", brevoApiKey)
+                .addHeader("Content-Type", "application/json")
+                .addHeader("accept", "application/json")
+                .post(body)
+                .build();
+
+        try (Response response = client.newCall(request).execute()) {
+            String responseBody = response.body() != null ? response.body().string() : "";
+
+            if (!response.isSuccessful()) {
+                // Throttling and provider-side errors are worth retrying; other 4xx will fail the same way again
+                boolean retryable = response.code() == 429 || response.code() >= 500;
+                throw new EmailDeliveryException(
+                        "Brevo returned " + response.code() + ": " + responseBody,
+                        retryable, response.code(), retryAfterMillis(response));
+            }
 
-                if (response.body() != null) {
-                    String responseBody = response.body().string();
-                    logger.info("Response Body: {}", responseBody);
+            logger.info("Brevo accepted {} email(s) (status {})", messageCount, response.code());
+        } catch (IOException e) {
+            throw new EmailDeliveryException("Failed to send email: " + e.getMessage(), true, 0, 0);
+        }
+    }
 
-                    if (!response.isSuccessful()) {
-                        throw new RuntimeException("Failed to send email: " + responseBody);
-                    }
+    // Brevo sends x-sib-ratelimit-reset (seconds); fall back to the standard Retry-After header
+    private long retryAfterMillis(Response response) {
+        for (String header : List.of("x-sib-ratelimit-reset", "Retry-After")) {
+            String value = response.header(header);
+            if (value != null) {
+                try {
+                    return (long) (Double.parseDouble(value.trim()) * 1000);
+                } catch (NumberFormatException ignored) {
+                    // HTTP-date form of Retry-After; let the limiter use its own backoff
                 }
-
-                logger.info("Email sent successfully!");
             }
-        } catch (IOException e) {
-            logger.error("Failed to send email", e);
-            throw new RuntimeException("Failed to send email: " + e.getMessage());
         }
+        return 0;
     }
 }
@@ -0,0 +1,373 @@
+package com.aureumpicks.ecommerce.service;
+
+import com.aureumpicks.ecommerce.model.EmailType;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+// Parses every email template once at startup into literal segments and slots, so a send is a single
+// pass over pre-split text appending into a reused per-thread buffer.
+//
+// Syntax: {{name}} HTML-escaped value, {{{name}}} raw value, {{#name}}...{{/name}} section (repeated per
+// list element, rendered once for any other non-empty value), {{> partial}} inlined at compile time.
+@Component
+public class EmailTemplateEngine {
+    private static final Logger logger = LoggerFactory.getLogger(EmailTemplateEngine.class);
+
+    private static final String TEMPLATE_DIR = "email-templates/";
+    // Buffers that grew past this for an unusually large email are dropped instead of pinned to the thread
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    @Value("${app.name:AureumPicks}")
+    private String appName;
+
+    // First entry is the fallback for recipients whose language has no templates
+    @Value("${app.email.locales:en,es}")
+    private List<String> supportedLanguages;
+
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(8192));
+
+    private Map<String, Map<EmailType, Compiled>> templatesByLanguage;
+    private String defaultLanguage;
+
+    @PostConstruct
+    public void init() {
+        defaultLanguage = supportedLanguages.get(0);
+        Map<String, Map<EmailType, Compiled>> compiled = new HashMap<>();
+        for (String language : supportedLanguages) {
+            if (!language.equals(defaultLanguage) && !isComplete(language)) {
+                // Half-translated sets would mix languages in one email; these recipients get the default set
+                continue;
+            }
+            Map<String, Node[]> partials = new HashMap<>();
+            partials.put("styles", compile(load("partials/styles", language), true, Map.of()));
+
+            Node[] layout = compile(load("layout", language), true, Map.of());
+            Properties subjects = loadSubjects(language);
+            Map<EmailType, Compiled> byType = new EnumMap<>(EmailType.class);
+            for (EmailType type : EmailType.values()) {
+                partials.put("body", compile(load(type.getTemplateName(), language), true, Map.of()));
+                String subject = subjects.getProperty(type.getTemplateName());
+                if (subject == null) {
+                    throw new IllegalStateException("No email subject for " + type.getTemplateName());
+                }
+                byType.put(type, new Compiled(
+                        compile(subject, false, Map.of()),
+                        inline(layout, partials)));
+            }
+            compiled.put(language, byType);
+        }
+        templatesByLanguage = Map.copyOf(compiled);
+    }
+
+    public String renderSubject(EmailType type, Locale locale, Map<String, ?> params) {
+        String language = resolveLanguage(locale);
+        return render(templatesByLanguage.get(language).get(type).subject, language, params);
+    }
+
+    public String renderHtml(EmailType type, Locale locale, Map<String, ?> params) {
+        String language = resolveLanguage(locale);
+        return render(templatesByLanguage.get(language).get(type).html, language, params);
+    }
+
+    // The recipient's language if it has a template set, else the default; also what the layout's lang says
+    private String resolveLanguage(Locale locale) {
+        String language = locale == null ? null : locale.getLanguage();
+        return language != null && templatesByLanguage.containsKey(language) ? language : defaultLanguage;
+    }
+
+    private String render(Node[] nodes, String language, Map<String, ?> params) {
+        Map<String, Object> globals = new HashMap<>(4);
+        globals.put("appName", appName);
+        globals.put("year", Year.now().getValue());
+        globals.put("lang", language);
+
+        StringBuilder out = buffers.get();
+        out.setLength(0);
+        List<Map<String, ?>> scopes = new ArrayList<>(4);
+        scopes.add(globals);
+        scopes.add(params == null ? Map.of() : params);
+        write(nodes, scopes, out);
+        String result = out.toString();
+        if (out.capacity() > MAX_RETAINED_BUFFER) {
+            buffers.remove();
+        }
+        return result;
+    }
+
+    private void write(Node[] nodes, List<Map<String, ?>> scopes, StringBuilder out) {
+        for (Node node : nodes) {
+            switch (node.kind) {
+                case TEXT -> out.append(node.text);
+                case VAR -> {
+                    Object value = lookup(scopes, node.text);
+                    if (value != null) {
+                        if (node.escape) {
+                            escapeHtml(value.toString(), out);
+                        } else {
+                            out.append(value);
+                        }
+                    }
+                }
+                case SECTION -> writeSection(node, lookup(scopes, node.text), scopes, out);
+                case PARTIAL -> throw new IllegalStateException("Unresolved partial " + node.text);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeSection(Node section, Object value, List<Map<String, ?>> scopes, StringBuilder out) {
+        if (value == null || Boolean.FALSE.equals(value) || "".equals(value)) {
+            return;
+        }
+        if (value instanceof Collection<?> items) {
+            for (Object item : items) {
+                if (item instanceof Map<?, ?> itemScope) {
+                    scopes.add((Map<String, ?>) itemScope);
+                    write(section.children, scopes, out);
+                    scopes.remove(scopes.size() - 1);
+                } else {
+                    write(section.children, scopes, out);
+                }
+            }
+            return;
+        }
+        write(section.children, scopes, out);
+    }
+
+    // Innermost scope wins, so list items can shadow top-level params
+    private Object lookup(List<Map<String, ?>> scopes, String name) {
+        for (int i = scopes.size() - 1; i >= 0; i--) {
+            Object value = scopes.get(i).get(name);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static void escapeHtml(String value, StringBuilder out) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    // ---- compilation (startup only) ----
+
+    private Node[] compile(String source, boolean escapeHtml, Map<String, Node[]> partials) {
+        List<List<Node>> stack = new ArrayList<>();
+        List<String> openSections = new ArrayList<>();
+        stack.add(new ArrayList<>());
+        int position = 0;
+        while (position < source.length()) {
+            int open = source.indexOf("{{", position);
+            if (open < 0) {
+                addText(stack.get(stack.size() - 1), source.substring(position));
+                break;
+            }
+            addText(stack.get(stack.size() - 1), source.substring(position, open));
+
+            boolean triple = source.startsWith("{{{", open);
+            String closeTag = triple ? "}}}" : "}}";
+            int close = source.indexOf(closeTag, open);
+            if (close < 0) {
+                throw new IllegalStateException("Unclosed tag at offset " + open);
+            }
+            String tag = source.substring(open + closeTag.length(), close).trim();
+            position = close + closeTag.length();
+
+            List<Node> current = stack.get(stack.size() - 1);
+            if (triple) {
+                current.add(Node.var(tag, false));
+            } else if (tag.startsWith("#")) {
+                openSections.add(tag.substring(1).trim());
+                stack.add(new ArrayList<>());
+                // Standalone section tags shouldn't leave a blank line behind
+                position = skipLineBreak(source, position);
+            } else if (tag.startsWith("/")) {
+                String name = tag.substring(1).trim();
+                if (openSections.isEmpty() || !openSections.get(openSections.size() - 1).equals(name)) {
+                    throw new IllegalStateException("Unexpected closing tag {{/" + name + "}}");
+                }
+                openSections.remove(openSections.size() - 1);
+                Node[] children = stack.remove(stack.size() - 1).toArray(new Node[0]);
+                stack.get(stack.size() - 1).add(Node.section(name, children));
+                position = skipLineBreak(source, position);
+            } else if (tag.startsWith(">")) {
+                current.add(Node.partial(tag.substring(1).trim()));
+            } else {
+                current.add(Node.var(tag, escapeHtml));
+            }
+        }
+        if (!openSections.isEmpty()) {
+            throw new IllegalStateException("Unclosed section {{#" + openSections.get(openSections.size() - 1) + "}}");
+        }
+        return inline(stack.get(0).toArray(new Node[0]), partials);
+    }
+
+    // Replaces partial references with their compiled nodes and merges adjacent literals
+    private Node[] inline(Node[] nodes, Map<String, Node[]> partials) {
+        List<Node> result = new ArrayList<>(nodes.length);
+        for (Node node : nodes) {
+            switch (node.kind) {
+                case PARTIAL -> {
+                    Node[] partial = partials.get(node.text);
+                    if (partial == null) {
+                        if (partials.isEmpty()) {
+                            // Resolved later, when the enclosing layout is combined with its partials
+                            result.add(node);
+                            continue;
+                        }
+                        throw new IllegalStateException("Unknown partial " + node.text);
+                    }
+                    for (Node child : inline(partial, partials)) {
+                        addNode(result, child);
+                    }
+                }
+                case SECTION -> result.add(Node.section(node.text, inline(node.children, partials)));
+                default -> addNode(result, node);
+            }
+        }
+        return result.toArray(new Node[0]);
+    }
+
+    private static void addNode(List<Node> nodes, Node node) {
+        if (node.kind == Kind.TEXT) {
+            addText(nodes, node.text);
+        } else {
+            nodes.add(node);
+        }
+    }
+
+    private static void addText(List<Node> nodes, String text) {
+        if (text.isEmpty()) {
+            return;
+        }
+        int last = nodes.size() - 1;
+        if (last >= 0 && nodes.get(last).kind == Kind.TEXT) {
+            nodes.set(last, Node.text(nodes.get(last).text + text));
+        } else {
+            nodes.add(Node.text(text));
+        }
+    }
+
+    private static int skipLineBreak(String source, int position) {
+        if (source.startsWith("\r\n", position)) {
+            return position + 2;
+        }
+        return source.startsWith("\n", position) ? position + 1 : position;
+    }
+
+    // Every email type has its own body and subject in this language
+    private boolean isComplete(String language) {
+        Properties localizedSubjects = new Properties();
+        ClassPathResource subjects = new ClassPathResource(TEMPLATE_DIR + "subjects_" + language + ".properties");
+        if (subjects.exists()) {
+            readProperties(subjects, localizedSubjects);
+        }
+        List<String> missing = new ArrayList<>();
+        for (EmailType type : EmailType.values()) {
+            String name = type.getTemplateName();
+            if (!new ClassPathResource(TEMPLATE_DIR + name + "_" + language + ".html").exists()
+                    || !localizedSubjects.containsKey(name)) {
+                missing.add(name);
+            }
+        }
+        if (!missing.isEmpty()) {
+            logger.warn("Email templates for '{}' are missing {}; sending {} instead", language, missing, defaultLanguage);
+        }
+        return missing.isEmpty();
+    }
+
+    // Language-specific file if present, otherwise the default one
+    private String load(String name, String language) {
+        ClassPathResource localized = new ClassPathResource(TEMPLATE_DIR + name + "_" + language + ".html");
+        ClassPathResource resource = localized.exists()
+                ? localized
+                : new ClassPathResource(TEMPLATE_DIR + name + ".html");
+        try (InputStream in = resource.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Missing email template " + resource.getPath(), e);
+        }
+    }
+
+    // Localized subjects override the defaults key by key
+    private Properties loadSubjects(String language) {
+        Properties subjects = new Properties();
+        readProperties(new ClassPathResource(TEMPLATE_DIR + "subjects.properties"), subjects);
+        ClassPathResource localized = new ClassPathResource(TEMPLATE_DIR + "subjects_" + language + ".properties");
+        if (localized.exists()) {
+            readProperties(localized, subjects);
+        }
+        return subjects;
+    }
+
+    private void readProperties(ClassPathResource resource, Properties into) {
+        try (InputStream in = resource.getInputStream()) {
+            into.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + resource.getPath(), e);
+        }
+    }
+
+    private enum Kind { TEXT, VAR, SECTION, PARTIAL }
+
+    private static final class Node {
+        final Kind kind;
+        final String text;
+        final boolean escape;
+        final Node[] children;
+
+        private Node(Kind kind, String text, boolean escape, Node[] children) {
+            this.kind = kind;
+            this.text = text;
+            this.escape = escape;
+            this.children = children;
+        }
+
+        static Node text(String text) {
+            return new Node(Kind.TEXT, text, false, null);
+        }
+
+        static Node var(String name, boolean escape) {
+            return new Node(Kind.VAR, name, escape, null);
+        }
+
+        static Node section(String name, Node[] children) {
+            return new Node(Kind.SECTION, name, false, children);
+        }
+
+        static Node partial(String name) {
+            return new Node(Kind.PARTIAL, name, false, null);
+        }
+    }
+
+    private record Compiled(Node[] subject, Node[] html) {
+    }
+}
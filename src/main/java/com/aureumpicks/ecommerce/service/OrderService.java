@@ -0,0 +1,223 @@
+package com.aureumpicks.ecommerce.service;
+
+import com.aureumpicks.ecommerce.dto.OrderLineResponse;
+import com.aureumpicks.ecommerce.dto.OrderResponse;
+import com.aureumpicks.ecommerce.inventory.StockReservationService;
+import com.aureumpicks.ecommerce.model.Cart;
+import com.aureumpicks.ecommerce.model.Order;
+import com.aureumpicks.ecommerce.model.OrderLine;
+import com.aureumpicks.ecommerce.model.Product;
+import com.aureumpicks.ecommerce.model.User;
+import com.aureumpicks.ecommerce.repository.CartRepository;
+import com.aureumpicks.ecommerce.repository.OrderLineRepository;
+import com.aureumpicks.ecommerce.repository.OrderRepository;
+import com.aureumpicks.ecommerce.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import jakarta.annotation.PostConstruct;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+public class OrderService {
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderLineRepository orderLineRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CartSummaryService cartSummaryService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Converts the user's whole cart into an order in one transaction. With an idempotency key, a retry
+    // (even one racing the original) returns the order the first attempt placed instead of a second one.
+    public OrderResponse checkout(String email, String idempotencyKey) {
+        User user = userService.findByEmail(email);
+        if (user == null) {
+            throw new RuntimeException("User not found");
+        }
+        String key = idempotencyKey == null || idempotencyKey.isBlank() ? null : idempotencyKey.trim();
+        if (key != null && key.length() > 100) {
+            throw new RuntimeException("Idempotency key must be at most 100 characters");
+        }
+
+        try {
+            return transactionTemplate.execute(status -> placeOrder(user, key));
+        } catch (RuntimeException e) {
+            // A concurrent attempt with the same key won: either our insert hit (user_id, idempotency_key)
+            // or we waited on its cart locks and found the cart already converted
+            if (key != null) {
+                OrderResponse existing = findReplay(user.getId(), key);
+                if (existing != null) {
+                    return existing;
+                }
+            }
+            throw e;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<OrderResponse> getUserOrders(String email) {
+        User user = userService.findByEmail(email);
+        if (user == null) {
+            throw new RuntimeException("User not found");
+        }
+        List<Order> orders = orderRepository.findByUserIdOrderByIdDesc(user.getId());
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        // All lines in one query, grouped per order
+        Map<Long, List<OrderLine>> linesByOrder = orderLineRepository
+                .findByOrderIdInOrderByIdAsc(orders.stream().map(Order::getId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.groupingBy(line -> line.getOrder().getId()));
+        List<OrderResponse> responses = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            responses.add(toResponse(order, linesByOrder.getOrDefault(order.getId(), List.of()), false));
+        }
+        return responses;
+    }
+
+    @Transactional(readOnly = true)
+    public OrderResponse getUserOrder(String email, Long orderId) {
+        User user = userService.findByEmail(email);
+        if (user == null) {
+            throw new RuntimeException("User not found");
+        }
+        Order order = orderRepository.findByIdAndUserId(orderId, user.getId())
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+        return toResponse(order, orderLineRepository.findByOrderIdInOrderByIdAsc(List.of(order.getId())), false);
+    }
+
+    private OrderResponse placeOrder(User user, String key) {
+        if (key != null) {
+            OrderResponse existing = findReplay(user.getId(), key);
+            if (existing != null) {
+                return existing;
+            }
+        }
+
+        // Locks the lines so a concurrent cart write can't change what is being bought
+        List<Cart> cartLines = cartRepository.findLockedWithProductByUserId(user.getId());
+        if (cartLines.isEmpty()) {
+            throw new RuntimeException("Cart is empty");
+        }
+
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        List<OrderLine> lines = new ArrayList<>(cartLines.size());
+        int itemCount = 0;
+        BigDecimal total = BigDecimal.ZERO;
+        for (Cart cartLine : cartLines) {
+            Product product = cartLine.getProduct();
+            BigDecimal lineTotal = product.getPrice().multiply(BigDecimal.valueOf(cartLine.getQuantity()));
+            OrderLine line = new OrderLine();
+            line.setProductId(product.getId());
+            line.setProductName(product.getName());
+            line.setUnitPrice(product.getPrice());
+            line.setQuantity(cartLine.getQuantity());
+            line.setLineTotal(lineTotal);
+            lines.add(line);
+            quantities.put(product.getId(), cartLine.getQuantity());
+            itemCount += cartLine.getQuantity();
+            total = total.add(lineTotal);
+        }
+
+        decrementStock(user.getId(), cartLines, quantities);
+
+        Order order = new Order();
+        order.setUser(user);
+        order.setOrderNumber(newOrderNumber());
+        order.setStatus(Order.Status.PLACED);
+        order.setItemCount(itemCount);
+        order.setTotal(total);
+        order.setIdempotencyKey(key);
+        // Flushed now so a duplicate key fails here, before any more work is done
+        order = orderRepository.saveAndFlush(order);
+
+        orderLineRepository.batchInsert(order.getId(), lines);
+        cartRepository.deleteByUser(user);
+        cartSummaryService.reset(user.getId());
+
+        List<Map<String, Object>> emailItems = new ArrayList<>(lines.size());
+        for (OrderLine line : lines) {
+            emailItems.add(Map.of("name", line.getProductName(), "quantity", line.getQuantity(),
+                    "lineTotal", line.getLineTotal().toPlainString()));
+        }
+        // Outbox row commits with the order, so a rolled-back checkout never sends a confirmation
+        emailService.sendOrderConfirmationEmail(user.getEmail(), order.getOrderNumber(), emailItems,
+                total.toPlainString());
+
+        return toResponse(order, lines, false);
+    }
+
+    // With reservations on, the held units are committed and flushed to products.stock in the background;
+    // otherwise each product is decremented here with a conditional update that fails when short
+    private void decrementStock(Long userId, List<Cart> cartLines, Map<Long, Integer> quantities) {
+        if (stockReservationService.isEnabled()) {
+            stockReservationService.commit(userId, quantities);
+            return;
+        }
+        for (Cart cartLine : cartLines) {
+            Product product = cartLine.getProduct();
+            if (productRepository.decrementStock(product.getId(), cartLine.getQuantity()) == 0) {
+                throw new RuntimeException("Insufficient stock for " + product.getName());
+            }
+        }
+    }
+
+    private OrderResponse findReplay(Long userId, String key) {
+        Order order = orderRepository.findByUserIdAndIdempotencyKey(userId, key).orElse(null);
+        if (order == null) {
+            return null;
+        }
+        return toResponse(order, orderLineRepository.findByOrderIdInOrderByIdAsc(List.of(order.getId())), true);
+    }
+
+    private String newOrderNumber() {
+        return "AP-" + UUID.randomUUID().toString().replace("-", "").substring(0, 12).toUpperCase();
+    }
+
+    private OrderResponse toResponse(Order order, List<OrderLine> lines, boolean replayed) {
+        List<OrderLineResponse> lineResponses = new ArrayList<>(lines.size());
+        for (OrderLine line : lines) {
+            lineResponses.add(new OrderLineResponse(line.getProductId(), line.getProductName(), line.getUnitPrice(),
+                    line.getQuantity(), line.getLineTotal()));
+        }
+        return new OrderResponse(order.getId(), order.getOrderNumber(), order.getStatus().name(),
+                order.getItemCount(), order.getTotal(), order.getCreatedAt(), lineResponses, replayed);
+    }
+}
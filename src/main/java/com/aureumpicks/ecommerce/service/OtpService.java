@@ -0,0 +1,92 @@
+package com.aureumpicks.ecommerce.service;
+
+import com.aureumpicks.ecommerce.model.OtpPurpose;
+import com.aureumpicks.ecommerce.model.User;
+import com.aureumpicks.ecommerce.otp.InMemoryOtpStore;
+import com.aureumpicks.ecommerce.otp.JdbcOtpStore;
+import com.aureumpicks.ecommerce.otp.OtpStore;
+import com.aureumpicks.ecommerce.util.OtpUtil;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Issues and checks the one-time codes for email verification and password reset. Codes live in an OtpStore
+ * rather than on the user: "jdbc" (default) survives restarts and is shared by every instance, "memory" is for
+ * a single node. Each code allows max-attempts guesses, and expired codes are removed in bulk on a schedule.
+ */
+@Service
+public class OtpService {
+    @Autowired
+    private OtpUtil otpUtil;
+
+    @Autowired
+    private JdbcOtpStore jdbcOtpStore;
+
+    @Autowired
+    private InMemoryOtpStore inMemoryOtpStore;
+
+    @Value("${app.otp.store:jdbc}")
+    private String storeType;
+
+    @Value("${app.otp.ttl-minutes:10}")
+    private long ttlMinutes;
+
+    @Value("${app.otp.max-attempts:5}")
+    private int maxAttempts;
+
+    private OtpStore store;
+
+    private final LongAdder issued = new LongAdder();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder refused = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        if ("memory".equalsIgnoreCase(storeType)) {
+            store = inMemoryOtpStore;
+        } else if ("jdbc".equalsIgnoreCase(storeType)) {
+            store = jdbcOtpStore;
+        } else {
+            throw new IllegalStateException("Unknown app.otp.store: " + storeType);
+        }
+    }
+
+    // Replaces any code the user already holds for this purpose
+    public String issue(User user, OtpPurpose purpose) {
+        String code = otpUtil.generateOtp();
+        store.put(user.getId(), purpose, code, LocalDateTime.now().plusMinutes(ttlMinutes));
+        issued.increment();
+        return code;
+    }
+
+    public boolean verify(User user, OtpPurpose purpose, String code) {
+        boolean ok = code != null && store.consume(user.getId(), purpose, code, maxAttempts, LocalDateTime.now());
+        (ok ? accepted : refused).increment();
+        return ok;
+    }
+
+    @Scheduled(fixedDelayString = "${app.otp.cleanup-interval-ms:60000}")
+    public void evictExpired() {
+        evicted.add(store.evictExpired(LocalDateTime.now()));
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("store", store == jdbcOtpStore ? "jdbc" : "memory");
+        metrics.put("liveCodes", store.size());
+        metrics.put("issued", issued.sum());
+        metrics.put("accepted", accepted.sum());
+        metrics.put("refused", refused.sum());
+        metrics.put("evicted", evicted.sum());
+        return metrics;
+    }
+}
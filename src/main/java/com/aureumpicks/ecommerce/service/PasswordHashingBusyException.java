@@ -0,0 +1,15 @@
+package com.aureumpicks.ecommerce.service;
+
+// Raised when the password hashing pool is saturated; callers answer 503 instead of queueing the request
+public class PasswordHashingBusyException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public PasswordHashingBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,133 @@
+package com.aureumpicks.ecommerce.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs every BCrypt hash and verification on a small dedicated pool so a burst of logins can only use
+ * that many cores; request threads just wait for the result. When the queue is full, or a queued hash
+ * would not start within max-wait-ms, the caller gets PasswordHashingBusyException right away and the
+ * rest of the site keeps its threads.
+ */
+@Service
+public class PasswordHashingService {
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    // 0 = one thread per core
+    @Value("${app.security.password.threads:0}")
+    private int threads;
+
+    @Value("${app.security.password.queue-capacity:32}")
+    private int queueCapacity;
+
+    // Upper bound on how long a request waits for its hash, queueing included
+    @Value("${app.security.password.max-wait-ms:2000}")
+    private long maxWaitMillis;
+
+    private ThreadPoolExecutor pool;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder rehashed = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        pool = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        pool.prestartAllCoreThreads();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    // True when the stored hash was made with a lower cost than the one now configured
+    public boolean needsRehash(String encodedPassword) {
+        return encodedPassword != null && passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    // Best effort: an upgrade is skipped rather than failing a login that already succeeded
+    public String tryRehash(String rawPassword) {
+        try {
+            String hash = encode(rawPassword);
+            rehashed.increment();
+            return hash;
+        } catch (PasswordHashingBusyException e) {
+            return null;
+        }
+    }
+
+    private <T> T run(Callable<T> work) {
+        Future<T> future;
+        try {
+            future = pool.submit(work);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException("Too many sign-in attempts right now, please retry shortly", 1);
+        }
+        try {
+            T result = future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+            completed.increment();
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.increment();
+            throw new PasswordHashingBusyException("Too many sign-in attempts right now, please retry shortly", 1);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while hashing password");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException runtime ? runtime : new RuntimeException(cause);
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("threads", pool.getMaximumPoolSize());
+        metrics.put("active", pool.getActiveCount());
+        metrics.put("queued", pool.getQueue().size());
+        metrics.put("queueCapacity", queueCapacity);
+        metrics.put("completed", completed.sum());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("timedOut", timedOut.sum());
+        metrics.put("rehashed", rehashed.sum());
+        return metrics;
+    }
+}
@@ -0,0 +1,281 @@
+package com.aureumpicks.ecommerce.service;
+
+import com.aureumpicks.ecommerce.dto.ProductDetail;
+import com.aureumpicks.ecommerce.dto.ProductPageResponse;
+import com.aureumpicks.ecommerce.dto.ProductSummary;
+import com.aureumpicks.ecommerce.event.ProductChangedEvent;
+import com.aureumpicks.ecommerce.event.ProductStockFlushedEvent;
+import com.aureumpicks.ecommerce.event.ProductsImportedEvent;
+import com.aureumpicks.ecommerce.model.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ready-to-send JSON for the hot catalog reads: one product, one category, one keyset page. Each entry keeps
+ * the UTF-8 bytes and, when it is worth it, a gzipped copy, so a hit is written out as a byte[] with no
+ * Jackson work. Entries are weighed by their byte size against max-bytes and evicted by Caffeine's
+ * frequency-and-recency policy. Product writes drop the affected product and category entries and re-encode
+ * the ones that were cached; pages carry the catalog version they were built at and are rebuilt once it
+ * moves, which also covers stock flushes.
+ */
+@Service
+public class ProductResponseCache {
+    // Keeps tiny bodies uncompressed, where gzip's header would outweigh the saving
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.cache.responses.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.cache.responses.max-bytes:33554432}")
+    private long maxBytes;
+
+    // Entries are copies of the entity caches, so this adds at most this much to their staleness
+    @Value("${app.cache.responses.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private Cache<String, Encoded> cache;
+
+    // Bumped before every invalidation; an entry built across a bump may hold the old state and is dropped
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder gzipServed = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, Encoded encoded) -> encoded.weight())
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    public ResponseEntity<byte[]> product(Long id, String acceptEncoding) {
+        Encoded encoded = lookup("product:" + id, 0, () -> {
+            ProductDetail product = productService.getProductDetail(id);
+            String eTag = catalogVersionService.productETag(product.getId(), product.getUpdatedAt());
+            Instant lastModified = eTag == null ? null : CatalogVersionService.toInstant(product.getUpdatedAt());
+            return encode(product, eTag, lastModified, 0);
+        });
+        return respond(encoded, acceptEncoding);
+    }
+
+    public ResponseEntity<byte[]> category(String category, String acceptEncoding) {
+        Encoded encoded = lookup("category:" + category, 0, () -> {
+            List<ProductSummary> products = productService.getProductsByCategory(category);
+            return encode(products, catalogVersionService.listETag(products),
+                    catalogVersionService.listLastModified(products), 0);
+        });
+        return respond(encoded, acceptEncoding);
+    }
+
+    public ResponseEntity<byte[]> page(String sort, String direction, Integer size, String cursor, String acceptEncoding) {
+        long version = catalogVersionService.getVersion();
+        Encoded encoded = lookup("page:" + sort + "|" + direction + "|" + size + "|" + cursor, version, () -> {
+            ProductPageResponse page = productService.getProductPage(sort, direction, size, cursor);
+            return encode(page, null, null, version);
+        });
+        return respond(encoded, acceptEncoding);
+    }
+
+    // After commit, so the re-encode below reads the written state
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        generation.incrementAndGet();
+        List<String> keys = new ArrayList<>();
+        keys.add("product:" + event.getProductId());
+        if (event.getPreviousCategory() != null) {
+            keys.add("category:" + event.getPreviousCategory());
+        }
+        if (event.getProduct() != null && event.getProduct().getCategory() != null) {
+            keys.add("category:" + event.getProduct().getCategory());
+        }
+        for (String key : keys) {
+            boolean wasCached = cache.asMap().remove(key) != null;
+            if (!wasCached || !enabled) {
+                continue;
+            }
+            // Hot entries are rebuilt now rather than by the next request
+            try {
+                if (key.startsWith("product:") && event.getType() != ProductChangedEvent.Type.DELETED) {
+                    product(event.getProductId(), null);
+                } else if (key.startsWith("category:")) {
+                    category(key.substring("category:".length()), null);
+                }
+            } catch (RuntimeException e) {
+                // The next request builds it instead
+            }
+        }
+    }
+
+    // An import chunk touches many entries at once: drop them and let the next request rebuild what is hot,
+    // rather than re-encoding the same category once per imported row
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        generation.incrementAndGet();
+        for (Product product : event.getProducts()) {
+            cache.asMap().remove("product:" + product.getId());
+            if (product.getCategory() != null) {
+                cache.asMap().remove("category:" + product.getCategory());
+            }
+        }
+        for (String category : event.getPreviousCategories().values()) {
+            if (category != null) {
+                cache.asMap().remove("category:" + category);
+            }
+        }
+    }
+
+    // Sales written back by the stock flush; dropped rather than re-encoded, as busy products flush often
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockFlushed(ProductStockFlushedEvent event) {
+        generation.incrementAndGet();
+        cache.asMap().remove("product:" + event.getProductId());
+        if (event.getCategory() != null) {
+            cache.asMap().remove("category:" + event.getCategory());
+        }
+    }
+
+    // No compute-under-lock: two concurrent misses both encode, but the entity caches below already collapse
+    // their loads, and a database read inside Caffeine's compute would pin a virtual thread
+    private Encoded lookup(String key, long version, Supplier<Encoded> builder) {
+        if (!enabled) {
+            return builder.get();
+        }
+        Encoded cached = cache.getIfPresent(key);
+        if (cached != null && cached.version == version) {
+            return cached;
+        }
+        long startGeneration = generation.get();
+        Encoded built = builder.get();
+        cache.put(key, built);
+        if (generation.get() != startGeneration) {
+            cache.asMap().remove(key, built);
+        }
+        return built;
+    }
+
+    private Encoded encode(Object body, String eTag, Instant lastModified, long version) {
+        byte[] json = objectMapper.writeValueAsBytes(body);
+        byte[] gzip = json.length >= GZIP_MIN_BYTES ? gzip(json) : null;
+        if (gzip != null && gzip.length >= json.length) {
+            gzip = null;
+        }
+        // Pages have no entity to derive a validator from; the digest of the bytes is a strong one
+        String strongETag = eTag != null ? eTag : "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+        return new Encoded(json, gzip, strongETag, lastModified, version);
+    }
+
+    private ResponseEntity<byte[]> respond(Encoded encoded, String acceptEncoding) {
+        boolean useGzip = encoded.gzip != null && acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(catalogVersionService.cacheControl())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                // Strong ETags must differ per content coding
+                .eTag(useGzip ? encoded.eTag.substring(0, encoded.eTag.length() - 1) + "-gz\"" : encoded.eTag);
+        if (encoded.lastModified != null) {
+            response.lastModified(encoded.lastModified);
+        }
+        if (useGzip) {
+            gzipServed.increment();
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(encoded.gzip);
+        }
+        return response.body(encoded.json);
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public Map<String, Object> getMetrics() {
+        // Eviction runs asynchronously; settle it so the reported size is current
+        cache.cleanUp();
+        CacheStats stats = cache.stats();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("entries", cache.estimatedSize());
+        metrics.put("bytes", cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L));
+        metrics.put("maxBytes", maxBytes);
+        metrics.put("hitRate", stats.hitRate());
+        metrics.put("hits", stats.hitCount());
+        metrics.put("misses", stats.missCount());
+        metrics.put("evictions", stats.evictionCount());
+        metrics.put("gzipServed", gzipServed.sum());
+        return metrics;
+    }
+
+    private static final class Encoded {
+        final byte[] json;
+        final byte[] gzip;
+        final String eTag;
+        final Instant lastModified;
+        final long version;
+
+        Encoded(byte[] json, byte[] gzip, String eTag, Instant lastModified, long version) {
+            this.json = json;
+            this.gzip = gzip;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.version = version;
+        }
+
+        // Body bytes plus a rough allowance for the entry and key themselves
+        int weight() {
+            return json.length + (gzip == null ? 0 : gzip.length) + 128;
+        }
+    }
+}
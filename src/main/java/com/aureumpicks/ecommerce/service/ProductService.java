@@ -1,51 +1,263 @@
 package com.aureumpicks.ecommerce.service;
 
+import com.aureumpicks.ecommerce.config.CacheConfig;
+import com.aureumpicks.ecommerce.dto.ProductBrowseResponse;
+import com.aureumpicks.ecommerce.dto.ProductDetail;
+import com.aureumpicks.ecommerce.dto.ProductPageResponse;
+import com.aureumpicks.ecommerce.dto.ProductSearchResponse;
+import com.aureumpicks.ecommerce.dto.ProductSort;
+import com.aureumpicks.ecommerce.dto.ProductSummary;
+import com.aureumpicks.ecommerce.event.ProductChangedEvent;
+import com.aureumpicks.ecommerce.event.ProductsImportedEvent;
 import com.aureumpicks.ecommerce.model.Product;
+import com.aureumpicks.ecommerce.repository.CartRepository;
 import com.aureumpicks.ecommerce.repository.ProductRepository;
+import com.aureumpicks.ecommerce.search.ProductFacetIndex;
+import com.aureumpicks.ecommerce.search.ProductSearchIndex;
+import com.aureumpicks.ecommerce.util.ProductCursorUtil;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
+
     @Autowired
     private ProductRepository productRepository;
 
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();  // fndAll → findAll
+    @Autowired
+    private ProductCursorUtil productCursorUtil;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartSummaryService cartSummaryService;
+
+    @Value("${app.products.page.default-size:24}")
+    private int defaultPageSize;
+
+    @Value("${app.products.page.max-size:100}")
+    private int maxPageSize;
+
+    // Deepest offset page-numbered listings (search, browse) will serve; each page costs offset + size work
+    @Value("${app.products.page.max-offset:10000}")
+    private int maxOffset;
+
+    // Rows from before ratings existed hold null, which the rating keyset can't seek past
+    @PostConstruct
+    public void backfillRatings() {
+        int backfilled = productRepository.backfillMissingRatings();
+        if (backfilled > 0) {
+            logger.info("Gave {} unrated products the default rating of 0", backfilled);
+        }
     }
 
+    @Transactional(readOnly = true)
+    public List<ProductSummary> getAllProducts() {
+        return productRepository.findAllSummaries();
+    }
+
+    @Transactional(readOnly = true)
+    public ProductPageResponse getProductPage(String sortParam, String directionParam, Integer size, String cursorParam) {
+        ProductSort sort = ProductSort.from(sortParam);
+        boolean descending = "desc".equalsIgnoreCase(directionParam);
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+
+        Object afterValue = null;
+        Long afterId = null;
+        if (cursorParam != null && !cursorParam.isBlank()) {
+            ProductCursorUtil.Cursor cursor = productCursorUtil.decode(cursorParam);
+            if (cursor.getSort() != sort || cursor.isDescending() != descending) {
+                throw new RuntimeException("Cursor does not match the requested sort");
+            }
+            afterValue = cursor.getValue();
+            afterId = cursor.getId();
+        }
+
+        // Fetch one extra row to learn whether another page exists without a COUNT(*)
+        List<ProductSummary> rows = productRepository.findSummaryPage(sort, descending, afterValue, afterId, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductSummary> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? productCursorUtil.encode(sort, descending, items.get(items.size() - 1)) : null;
+
+        return new ProductPageResponse(items, nextCursor, hasMore, items.size());
+    }
+
+    // Product page and cart reads; getProductById is for callers that need the entity
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_DETAILS, key = "#id", sync = true)
+    @Transactional(readOnly = true)
+    public ProductDetail getProductDetail(Long id) {
+        return productRepository.findDetailById(id)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+    }
+
+    // Not cached: callers modify and save what they get
     public Product getProductById(Long id) {
         return productRepository.findById(id)  // fndById → findById
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
     }
 
-    public List<Product> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category);  // fndByCategory → findByCategory
+    // One IN query for callers that need many products at once; missing ids are simply absent
+    public List<Product> getProductsByIds(Collection<Long> ids) {
+        return productRepository.findAllById(ids);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS_BY_CATEGORY, key = "#category", sync = true)
+    @Transactional(readOnly = true)
+    public List<ProductSummary> getProductsByCategory(String category) {
+        return List.copyOf(productRepository.findSummariesByCategory(category));
     }
 
-    public List<Product> searchProducts(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name);  // fndByNameContainingIgnoreCase → findByNameContainingIgnoreCase
+    public ProductSearchResponse searchProducts(String query, Integer page, Integer size) {
+        int pageNumber = page == null ? 0 : Math.max(0, page);
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        int offset = checkedOffset(pageNumber, pageSize);
+        if (productSearchIndex.isReady()) {
+            return productSearchIndex.search(query, pageNumber, pageSize);
+        }
+
+        // Index still warming up after startup: bounded LIKE scan on the name only
+        int wanted = offset + pageSize;
+        List<ProductSummary> matches = productRepository.findSummariesByNameContaining(query, Limit.of(wanted)).stream()
+                .skip(offset)
+                .collect(Collectors.toList());
+        return new ProductSearchResponse(matches, offset + matches.size(), pageNumber, pageSize);
+    }
+
+    // page * size, refused past max-offset (and before it can overflow)
+    private int checkedOffset(int page, int size) {
+        try {
+            int offset = Math.multiplyExact(page, size);
+            if (offset <= maxOffset) {
+                return offset;
+            }
+        } catch (ArithmeticException e) {
+            // Falls through to the same rejection
+        }
+        throw new IllegalArgumentException("Page is too deep: at most " + maxOffset + " results can be skipped");
+    }
+
+    public boolean isBrowseAvailable() {
+        return productFacetIndex.isReady();
+    }
+
+    // Filtering and counting happen on the facet bitmaps; only the page's rows are read from the database
+    @Transactional(readOnly = true)
+    public ProductBrowseResponse browseProducts(List<String> categories, List<String> prices, Integer minRating,
+                                                Boolean inStock, Integer page, Integer size) {
+        int pageNumber = page == null ? 0 : Math.max(0, page);
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        checkedOffset(pageNumber, pageSize);
+        ProductFacetIndex.Result result = productFacetIndex.query(categories, prices, minRating,
+                Boolean.TRUE.equals(inStock), pageNumber, pageSize);
+        List<ProductSummary> items = result.getPageIds().isEmpty() ? List.of()
+                : productRepository.findSummariesByIdIn(result.getPageIds());
+        return new ProductBrowseResponse(items, result.getTotal(), pageNumber, pageSize, result.getCounts());
     }
 
     public Product addProduct(Product product) {
-        return productRepository.save(product);
+        if (product.getRating() == null) {
+            product.setRating(0.0);
+        }
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(
+                ProductChangedEvent.Type.CREATED, savedProduct.getId(), savedProduct, null, null));
+        return savedProduct;
     }
 
     public Product updateProduct(Long id, Product productDetails) {
         Product product = getProductById(id);
+        String previousCategory = product.getCategory();
+        BigDecimal previousPrice = product.getPrice();
         product.setName(productDetails.getName());
         product.setDescription(productDetails.getDescription());
         product.setPrice(productDetails.getPrice());
         product.setStock(productDetails.getStock());
         product.setCategory(productDetails.getCategory());
         product.setImageUrl(productDetails.getImageUrl());
-        product.setRating(productDetails.getRating());
-        return productRepository.save(product);
+        product.setRating(productDetails.getRating() != null ? productDetails.getRating() : 0.0);
+        Product updatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(
+                ProductChangedEvent.Type.UPDATED, id, updatedProduct, previousCategory, previousPrice));
+        return updatedProduct;
     }
 
+    @Transactional
     public void deleteProduct(Long id) {
         Product product = getProductById(id);
+        // Cart lines reference the product; summaries are adjusted first because they read those lines
+        cartSummaryService.removeProduct(id);
+        cartRepository.deleteByProductId(id);
         productRepository.delete(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(
+                ProductChangedEvent.Type.DELETED, id, null, product.getCategory(), product.getPrice()));
+    }
+
+    // Bulk imports write through JDBC in chunks; each committed chunk is announced once rather than per row
+    public void catalogImported(List<Product> products, Map<Long, String> previousCategories) {
+        eventPublisher.publishEvent(new ProductsImportedEvent(products, previousCategories));
+    }
+
+    // After commit, so a read racing the write cannot cache the old row again once it is evicted.
+    // Ordered first: ProductResponseCache re-encodes hot entries from these caches in its own listener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evictCatalogEntries(event.getProductId(), event.getPreviousCategory(),
+                event.getProduct() != null ? event.getProduct().getCategory() : null);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        for (Product product : event.getProducts()) {
+            evictCatalogEntries(product.getId(), event.getPreviousCategories().get(product.getId()),
+                    product.getCategory());
+        }
+    }
+
+    // Drop exactly the cached entries a write can affect
+    private void evictCatalogEntries(Long id, String category, String otherCategory) {
+        evict(CacheConfig.PRODUCT_DETAILS, id);
+        evict(CacheConfig.PRODUCTS_BY_CATEGORY, category);
+        evict(CacheConfig.PRODUCTS_BY_CATEGORY, otherCategory);
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
     }
 }
\ No newline at end of file
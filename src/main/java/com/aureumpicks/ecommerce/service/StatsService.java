@@ -0,0 +1,113 @@
+package com.aureumpicks.ecommerce.service;
+
+import com.aureumpicks.ecommerce.inventory.StockReservationService;
+import com.aureumpicks.ecommerce.model.EmailOutbox;
+import com.aureumpicks.ecommerce.ratelimit.RateLimitFilter;
+import com.aureumpicks.ecommerce.search.ProductFacetIndex;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+public class StatsService {
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private EmailOutboxDispatcher emailOutboxDispatcher;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private AbandonedCartPurger abandonedCartPurger;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    private OtpService otpService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private ProductResponseCache productResponseCache;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (!(cache instanceof CaffeineCache caffeineCache)) {
+                continue;
+            }
+            CacheStats stats = caffeineCache.getNativeCache().stats();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("size", caffeineCache.getNativeCache().estimatedSize());
+            entry.put("hits", stats.hitCount());
+            entry.put("misses", stats.missCount());
+            entry.put("hitRate", stats.hitRate());
+            entry.put("evictions", stats.evictionCount());
+            entry.put("loads", stats.loadCount());
+            entry.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+            response.put(name, entry);
+        }
+        return response;
+    }
+
+    public Map<String, Object> getEmailOutboxStats() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        for (EmailOutbox.Status status : EmailOutbox.Status.values()) {
+            response.put(status.name().toLowerCase(), emailOutboxService.countByStatus(status));
+        }
+        response.put("pipeline", emailOutboxDispatcher.getMetrics());
+        return response;
+    }
+
+    public Map<String, Object> getInventoryStats() {
+        return stockReservationService.getMetrics();
+    }
+
+    public Map<String, Object> getCartPurgeStats() {
+        return abandonedCartPurger.getMetrics();
+    }
+
+    public Map<String, Object> getPasswordHashingStats() {
+        return passwordHashingService.getMetrics();
+    }
+
+    public Map<String, Object> getRateLimitStats() {
+        return rateLimitFilter.getMetrics();
+    }
+
+    public Map<String, Object> getOtpStats() {
+        return otpService.getMetrics();
+    }
+
+    public Map<String, Object> getCatalogVersionStats() {
+        return catalogVersionService.getMetrics();
+    }
+
+    public Map<String, Object> getResponseCacheStats() {
+        return productResponseCache.getMetrics();
+    }
+
+    public Map<String, Object> getFacetStats() {
+        return productFacetIndex.getMetrics();
+    }
+}
@@ -0,0 +1,28 @@
+package com.aureumpicks.ecommerce.service;
+
+import com.aureumpicks.ecommerce.config.CacheConfig;
+import com.aureumpicks.ecommerce.model.User;
+import com.aureumpicks.ecommerce.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+@Service
+public class TokenRevocationService {
+    @Autowired
+    private UserRepository userRepository;
+
+    // Current token version for the user, or null if the account no longer exists
+    @Cacheable(cacheNames = CacheConfig.TOKEN_VERSIONS, key = "#email", sync = true)
+    public Integer getTokenVersion(String email) {
+        return userRepository.findTokenVersionByEmail(email).orElse(null);
+    }
+
+    // Invalidates every token issued to the user so far
+    @CacheEvict(cacheNames = CacheConfig.TOKEN_VERSIONS, key = "#user.email")
+    public User revokeAllTokens(User user) {
+        user.setTokenVersion(user.getTokenVersion() == null ? 1 : user.getTokenVersion() + 1);
+        return userRepository.save(user);
+    }
+}
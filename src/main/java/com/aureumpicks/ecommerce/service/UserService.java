@@ -34,6 +34,10 @@ public class UserService implements UserDetailsService {
         return userRepository.existsByEmail(email);
     }
 
+    public boolean replacePasswordHash(User user, String newHash) {
+        return userRepository.replacePasswordHash(user.getId(), user.getPassword(), newHash) == 1;
+    }
+
     public User save(User user) {
         return userRepository.save(user);
     }
@@ -0,0 +1,53 @@
+package com.aureumpicks.ecommerce.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces calls to an external API at a rate that adapts to its feedback (AIMD): every success nudges
+ * the rate up by a fixed step, every throttling response halves it and pauses all callers until the
+ * provider's reset time.
+ */
+public class AdaptiveRateLimiter {
+    private final double minRate;
+    private final double maxRate;
+    private final double increaseStep;
+    private double rate;
+    private long nextPermitNanos = System.nanoTime();
+
+    public AdaptiveRateLimiter(double initialRate, double minRate, double maxRate, double increaseStep) {
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.increaseStep = increaseStep;
+        this.rate = Math.max(minRate, Math.min(initialRate, maxRate));
+    }
+
+    // Blocks until the caller may issue one request
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long permitAt = Math.max(nextPermitNanos, now);
+            nextPermitNanos = permitAt + (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+            waitNanos = permitAt - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    public synchronized void onSuccess() {
+        rate = Math.min(maxRate, rate + increaseStep);
+    }
+
+    public synchronized void onThrottled(long retryAfterMillis) {
+        rate = Math.max(minRate, rate / 2);
+        long pauseNanos = retryAfterMillis > 0
+                ? TimeUnit.MILLISECONDS.toNanos(retryAfterMillis)
+                : (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        nextPermitNanos = Math.max(nextPermitNanos, System.nanoTime() + pauseNanos);
+    }
+
+    public synchronized double getRate() {
+        return rate;
+    }
+}
@@ -1,26 +1,112 @@
 package com.aureumpicks.ecommerce.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    // kid stamped on newly signed tokens
+    @Value("${jwt.kid:primary}")
+    private String keyId;
+
+    // Retired keys still accepted for verification during rotation, as "kid:secret,kid:secret"
+    @Value("${jwt.verification-keys:}")
+    private String verificationKeys;
+
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize;
+
+    // Built once at startup; SecretKey, JwtParser and Caffeine caches are all thread-safe
+    private SecretKey signingKey;
+    private Map<String, SecretKey> keysById;
+    private JwtParser parser;
+    private Cache<String, Claims> verifiedClaims;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+
+        Map<String, SecretKey> keys = new LinkedHashMap<>();
+        keys.put(keyId, signingKey);
+        if (verificationKeys != null && !verificationKeys.isBlank()) {
+            for (String entry : verificationKeys.split(",")) {
+                int colon = entry.indexOf(':');
+                if (colon <= 0) {
+                    throw new IllegalStateException("jwt.verification-keys entries must look like kid:secret");
+                }
+                keys.putIfAbsent(entry.substring(0, colon).trim(),
+                        Keys.hmacShaKeyFor(entry.substring(colon + 1).trim().getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+        keysById = Collections.unmodifiableMap(keys);
+
+        parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        // Tokens issued before kids were introduced carry none and were signed with the primary key
+                        if (header.getKeyId() == null) {
+                            return signingKey;
+                        }
+                        SecretKey key = keysById.get(header.getKeyId());
+                        if (key == null) {
+                            throw new JwtException("Unknown signing key id: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+
+        // Each entry lives until its token expires, so a hit never outlives the token itself
+        verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String token, Claims claims, long currentTime) {
+                        long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     public String extractUsername(String token) {
@@ -36,35 +122,53 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    // Single verified parse: throws JwtException if the signature is bad or the token has expired
+    public Claims parseClaims(String token) {
+        return extractAllClaims(token);
+    }
+
+    public int extractTokenVersion(Claims claims) {
+        Number version = claims.get(TOKEN_VERSION_CLAIM, Number.class);
+        return version == null ? 0 : version.intValue();
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // Hot clients resend the same token; only the first request per token pays for the HMAC check
+    private Claims extractAllClaims(String token) {
+        Claims cached = verifiedClaims.getIfPresent(token);
+        if (cached != null && cached.getExpiration().after(new Date())) {
+            return cached;
+        }
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() != null) {
+            verifiedClaims.put(token, claims);
+        }
+        return claims;
     }
 
     public String generateToken(String email) {
+        return generateToken(email, 0);
+    }
+
+    public String generateToken(String email, Integer tokenVersion) {
         Map<String, Object> claims = new HashMap<>();
+        claims.put(TOKEN_VERSION_CLAIM, tokenVersion == null ? 0 : tokenVersion);
         return createToken(claims, email);
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
+                .header().keyId(keyId).and()
                 .claims(claims)
                 .subject(subject)
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + expiration))
+                .signWith(signingKey)
                 .compact();
     }
 
     public Boolean validateToken(String token, String email) {
-        final String username = extractUsername(token);  // fnal → final
-        return (username.equals(email) && !isTokenExpired(token));
+        final Claims claims = extractAllClaims(token);  // fnal → final
+        return (claims.getSubject().equals(email) && !claims.getExpiration().before(new Date()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,71 @@
+package com.aureumpicks.ecommerce.util;
+
+import com.aureumpicks.ecommerce.dto.ProductSort;
+import com.aureumpicks.ecommerce.dto.ProductSummary;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Opaque keyset cursors: "v1|SORT|asc|<last sort value>|<last id>" in URL-safe Base64
+@Component
+public class ProductCursorUtil {
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    @Data
+    @AllArgsConstructor
+    public static class Cursor {
+        private ProductSort sort;
+        private boolean descending;
+        private Object value;
+        private Long id;
+    }
+
+    public String encode(ProductSort sort, boolean descending, ProductSummary last) {
+        String raw = String.join(SEPARATOR,
+                VERSION,
+                sort.name(),
+                descending ? "desc" : "asc",
+                formatValue(sort, last),
+                String.valueOf(last.getId()));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Cursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 5 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Unknown cursor format");
+            }
+            ProductSort sort = ProductSort.valueOf(parts[1]);
+            boolean descending = "desc".equals(parts[2]);
+            return new Cursor(sort, descending, parseValue(sort, parts[3]), Long.parseLong(parts[4]));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    private String formatValue(ProductSort sort, ProductSummary last) {
+        return switch (sort) {
+            case ID -> String.valueOf(last.getId());
+            case PRICE -> last.getPrice().toPlainString();
+            case RATING -> String.valueOf(last.getRating());
+            case CREATED_AT -> last.getCreatedAt().toString();
+        };
+    }
+
+    private Object parseValue(ProductSort sort, String value) {
+        return switch (sort) {
+            case ID -> Long.parseLong(value);
+            case PRICE -> new BigDecimal(value);
+            case RATING -> Double.parseDouble(value);
+            case CREATED_AT -> LocalDateTime.parse(value);
+        };
+    }
+}
@@ -0,0 +1,185 @@
+package com.aureumpicks.ecommerce;
+
+import com.aureumpicks.ecommerce.model.Product;
+import com.aureumpicks.ecommerce.model.User;
+import com.aureumpicks.ecommerce.repository.ProductRepository;
+import com.aureumpicks.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Drives the same mixed workload (catalog pages, product lookups, BCrypt logins) against the app in
+ * platform-thread and virtual-thread mode and prints throughput and latency percentiles for each.
+ * Excluded from the default build; run with {@code mvn test -Pload-test}. The virtual-thread pass needs
+ * Java 21+ and is skipped on older runtimes. Tune with -Dload.clients, -Dload.seconds, -Dload.login-percent.
+ */
+@Tag("load")
+class ThreadingModeLoadTest {
+    private static final int CLIENTS = Integer.getInteger("load.clients", 400);
+    private static final int SECONDS = Integer.getInteger("load.seconds", 20);
+    private static final int LOGIN_PERCENT = Integer.getInteger("load.login-percent", 10);
+    private static final String PASSWORD = "load-test-password";
+
+    @Test
+    void compareThroughputAndTailLatency() throws Exception {
+        List<Result> results = new ArrayList<>();
+        results.add(run(false));
+        if (Runtime.version().feature() >= 21) {
+            results.add(run(true));
+        } else {
+            System.out.println("Java " + Runtime.version().feature() + ": virtual-thread pass skipped (needs 21+)");
+        }
+
+        System.out.printf("%n%-10s %10s %10s %10s %10s %10s %8s%n",
+                "mode", "requests", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (Result result : results) {
+            System.out.printf("%-10s %10d %10.1f %10.1f %10.1f %10.1f %8d%n", result.mode, result.requests,
+                    result.throughput, result.p50, result.p99, result.max, result.errors);
+        }
+        for (Result result : results) {
+            assertEquals(0, result.errors, result.mode + " mode had failed requests");
+        }
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(AureumPicksApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + mode + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        // Repeated logins per email would otherwise be throttled
+                        "app.rate-limit.enabled=false")
+                .run();
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            List<String> emails = seed(context);
+            return drive(mode, "http://localhost:" + port, emails);
+        } finally {
+            context.close();
+        }
+    }
+
+    private List<String> seed(ConfigurableApplicationContext context) {
+        ProductRepository products = context.getBean(ProductRepository.class);
+        for (int i = 0; i < 500; i++) {
+            Product product = new Product();
+            product.setName("Load product " + i);
+            product.setCategory("category-" + i % 10);
+            product.setPrice(BigDecimal.valueOf(10 + i));
+            product.setStock(100);
+            product.setRating(0.0);
+            products.save(product);
+        }
+        UserRepository users = context.getBean(UserRepository.class);
+        String hash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            User user = new User();
+            user.setEmail("load-" + i + "@example.com");
+            user.setPassword(hash);
+            user.setIsVerified(true);
+            users.save(user);
+            emails.add(user.getEmail());
+        }
+        return emails;
+    }
+
+    private Result drive(String mode, String baseUrl, List<String> emails) throws Exception {
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newFixedThreadPool(16))
+                .build();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        ConcurrentLinkedQueue<long[]> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SECONDS);
+
+        for (int c = 0; c < CLIENTS; c++) {
+            clients.execute(() -> {
+                List<Long> mine = new ArrayList<>();
+                try {
+                    start.await();
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = nextRequest(baseUrl, emails);
+                        long began = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        mine.add(System.nanoTime() - began);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                latencies.add(mine.stream().mapToLong(Long::longValue).toArray());
+            });
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        clients.shutdown();
+        clients.awaitTermination(SECONDS + 60L, TimeUnit.SECONDS);
+        double elapsedSeconds = (System.nanoTime() - began) / 1e9;
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(mode, all.length, all.length / elapsedSeconds, percentile(all, 50), percentile(all, 99),
+                all.length == 0 ? 0 : all[all.length - 1] / 1e6, errors.get());
+    }
+
+    private HttpRequest nextRequest(String baseUrl, List<String> emails) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int roll = random.nextInt(100);
+        if (roll < LOGIN_PERCENT) {
+            String body = "{\"email\":\"" + emails.get(random.nextInt(emails.size())) + "\",\"password\":\"" + PASSWORD + "\"}";
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+        String path = roll < 55
+                ? "/api/products?size=24&sort=price"
+                : "/api/products/" + (1 + random.nextInt(500));
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private static double percentile(long[] sortedNanos, int percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+
+    private record Result(String mode, long requests, double throughput, double p50, double p99, double max,
+                          long errors) {
+    }
+}
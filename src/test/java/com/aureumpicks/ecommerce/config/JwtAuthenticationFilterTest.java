@@ -0,0 +1,106 @@
+package com.aureumpicks.ecommerce.config;
+
+import com.aureumpicks.ecommerce.model.User;
+import com.aureumpicks.ecommerce.repository.UserRepository;
+import com.aureumpicks.ecommerce.service.TokenRevocationService;
+import com.aureumpicks.ecommerce.util.JwtUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Default auth-mode (claims): the verified token plus the cached token version stand in for the user row
+@SpringBootTest
+class JwtAuthenticationFilterTest {
+
+    @Autowired
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private User addUser() {
+        User user = new User();
+        user.setEmail("filter-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("secret");
+        user.setIsVerified(true);
+        return userRepository.save(user);
+    }
+
+    // Runs one request through the filter and returns who it authenticated, if anyone
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cart");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        jwtAuthenticationFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Test
+    void validTokenAuthenticatesWithoutLoadingTheUser() throws Exception {
+        User user = addUser();
+        String token = jwtUtil.generateToken(user.getEmail(), user.getTokenVersion());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        Authentication first = authenticate(token);
+        assertNotNull(first);
+        assertEquals(user.getEmail(), first.getName());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        // The token version is cached now, so later requests don't touch the database at all
+        statistics.clear();
+        assertNotNull(authenticate(token));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void tokensFromBeforeARevocationAreRejected() throws Exception {
+        User user = addUser();
+        String oldToken = jwtUtil.generateToken(user.getEmail(), user.getTokenVersion());
+        assertNotNull(authenticate(oldToken));
+
+        user = tokenRevocationService.revokeAllTokens(user);
+
+        assertNull(authenticate(oldToken));
+        assertNotNull(authenticate(jwtUtil.generateToken(user.getEmail(), user.getTokenVersion())));
+    }
+
+    @Test
+    void tokensForDeletedAccountsAreRejected() throws Exception {
+        User user = addUser();
+        String token = jwtUtil.generateToken(user.getEmail(), user.getTokenVersion());
+        userRepository.delete(user);
+
+        assertNull(authenticate(token));
+    }
+}
@@ -0,0 +1,119 @@
+package com.aureumpicks.ecommerce.controller;
+
+import com.aureumpicks.ecommerce.model.Product;
+import com.aureumpicks.ecommerce.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private Product addProduct(String category) {
+        Product product = new Product();
+        product.setName("Conditional product");
+        product.setCategory(category);
+        product.setPrice(new BigDecimal("12.00"));
+        product.setStock(5);
+        return productService.addProduct(product);
+    }
+
+    private MockHttpServletResponse fetch(String path, String ifNoneMatch) throws Exception {
+        MockHttpServletRequestBuilder request = get(path);
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    @Test
+    void productRevalidationIsAnsweredFromCacheUntilItChanges() throws Exception {
+        Product product = addProduct("cond-" + UUID.randomUUID());
+        String path = "/api/products/" + product.getId();
+
+        MockHttpServletResponse first = fetch(path, null);
+        assertEquals(200, first.getStatus());
+        String eTag = first.getHeader("ETag");
+        assertNotNull(eTag);
+        assertNotNull(first.getHeader("Last-Modified"));
+        String cacheControl = first.getHeader("Cache-Control");
+        assertTrue(cacheControl.contains("max-age=60") && cacheControl.contains("stale-while-revalidate=300"), cacheControl);
+        assertFalse(cacheControl.contains("no-store"), cacheControl);
+
+        statistics.clear();
+        MockHttpServletResponse revalidated = fetch(path, eTag);
+        assertEquals(304, revalidated.getStatus());
+        assertEquals(0, revalidated.getContentLength());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        Product changed = productService.getProductById(product.getId());
+        changed.setPrice(new BigDecimal("13.00"));
+        productService.updateProduct(product.getId(), changed);
+        MockHttpServletResponse afterWrite = fetch(path, eTag);
+        assertEquals(200, afterWrite.getStatus());
+        assertNotEquals(eTag, afterWrite.getHeader("ETag"));
+    }
+
+    @Test
+    void fullCatalogIsRevalidatedWithoutQueryingUntilAWrite() throws Exception {
+        String eTag = fetch("/api/products/all", null).getHeader("ETag");
+        assertNotNull(eTag);
+
+        statistics.clear();
+        assertEquals(304, fetch("/api/products/all", eTag).getStatus());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        addProduct("cond-" + UUID.randomUUID());
+        MockHttpServletResponse afterWrite = fetch("/api/products/all", eTag);
+        assertEquals(200, afterWrite.getStatus());
+        assertNotEquals(eTag, afterWrite.getHeader("ETag"));
+    }
+
+    @Test
+    void categoryETagChangesWhenAProductJoinsIt() throws Exception {
+        String category = "cond-" + UUID.randomUUID();
+        addProduct(category);
+        String path = "/api/products/category/" + category;
+        String eTag = fetch(path, null).getHeader("ETag");
+
+        assertEquals(304, fetch(path, eTag).getStatus());
+
+        addProduct(category);
+        assertEquals(200, fetch(path, eTag).getStatus());
+    }
+}
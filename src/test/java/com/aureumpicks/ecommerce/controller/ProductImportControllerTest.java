@@ -0,0 +1,71 @@
+package com.aureumpicks.ecommerce.controller;
+
+import com.aureumpicks.ecommerce.model.User;
+import com.aureumpicks.ecommerce.repository.ProductRepository;
+import com.aureumpicks.ecommerce.repository.UserRepository;
+import com.aureumpicks.ecommerce.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void anonymousCallersCannotImportOrReadImports() throws Exception {
+        String sku = "anon-" + UUID.randomUUID();
+
+        int status = mockMvc.perform(post("/api/products/import")
+                        .contentType("text/csv")
+                        .content("sku,name,price\n" + sku + ",Sneaky lamp,1.00\n"))
+                .andReturn().getResponse().getStatus();
+
+        assertTrue(status == 401 || status == 403, "status " + status);
+        assertTrue(productRepository.findBySkuIn(List.of(sku)).isEmpty());
+        int listStatus = mockMvc.perform(get("/api/products/import")).andReturn().getResponse().getStatus();
+        assertTrue(listStatus == 401 || listStatus == 403, "status " + listStatus);
+    }
+
+    @Test
+    void signedInCallersCanImport() throws Exception {
+        User user = new User();
+        user.setEmail("importer-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("secret");
+        user.setIsVerified(true);
+        userRepository.save(user);
+        String sku = "signed-" + UUID.randomUUID();
+
+        int status = mockMvc.perform(post("/api/products/import")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken(user.getEmail(), 0))
+                        .contentType("text/csv")
+                        .content("sku,name,price\n" + sku + ",Desk lamp,15.00\n"))
+                .andReturn().getResponse().getStatus();
+
+        assertEquals(200, status);
+        assertEquals(1, productRepository.findBySkuIn(List.of(sku)).size());
+    }
+}
@@ -0,0 +1,85 @@
+package com.aureumpicks.ecommerce.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StripedStockCounterTest {
+
+    @Test
+    void concurrentTakesNeverExceedStock() throws Exception {
+        StripedStockCounter counter = new StripedStockCounter(8, 10_000);
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                long taken = 0;
+                for (int i = 0; i < 2_000; i++) {
+                    if (counter.tryTake(1 + i % 3)) {
+                        taken += 1 + i % 3;
+                    }
+                }
+                return taken;
+            }));
+        }
+        start.countDown();
+        long total = 0;
+        try {
+            for (Future<Long> future : futures) {
+                total += future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertTrue(total <= 10_000, "took " + total);
+        assertEquals(10_000 - total, counter.available());
+    }
+
+    @Test
+    void loweredStockIsOwedBeforeRefilling() {
+        StripedStockCounter counter = new StripedStockCounter(4, 0);
+        for (int i = 0; i < 4; i++) {
+            counter.put(1);
+        }
+        assertTrue(counter.tryTake(4));
+        assertFalse(counter.tryTake(1));
+
+        counter.rebase(-3);
+        assertEquals(-3, counter.available());
+        counter.put(2);
+        assertFalse(counter.tryTake(1));
+        counter.put(2);
+        assertTrue(counter.tryTake(1));
+        assertEquals(0, counter.available());
+    }
+
+    @Test
+    void flushMovesCommittedUnitsIntoTheDatabaseBaseline() {
+        StripedStockCounter counter = new StripedStockCounter(2, 10);
+        assertTrue(counter.tryTake(3));
+        counter.commit(3);
+        assertEquals(3, counter.pendingCommit());
+
+        counter.flushed(3);
+        assertEquals(0, counter.pendingCommit());
+        assertEquals(7, counter.databaseStock());
+
+        // An admin restock to 20 makes 13 more units available on top of the 7 left
+        counter.rebase(20);
+        assertEquals(20, counter.available());
+    }
+}
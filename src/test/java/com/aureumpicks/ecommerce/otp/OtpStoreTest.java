@@ -0,0 +1,86 @@
+package com.aureumpicks.ecommerce.otp;
+
+import com.aureumpicks.ecommerce.model.OtpPurpose;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Both stores must behave the same, so every case runs against each
+@SpringBootTest
+class OtpStoreTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    @Autowired
+    private JdbcOtpStore jdbcOtpStore;
+
+    @Autowired
+    private InMemoryOtpStore inMemoryOtpStore;
+
+    @Test
+    void codeIsAcceptedOnceAndOnlyForItsPurpose() {
+        for (OtpStore store : stores()) {
+            long userId = newUserId();
+            store.put(userId, OtpPurpose.VERIFICATION, "123456", NOW.plusMinutes(10));
+
+            assertFalse(store.consume(userId, OtpPurpose.PASSWORD_RESET, "123456", 5, NOW), name(store));
+            assertTrue(store.consume(userId, OtpPurpose.VERIFICATION, "123456", 5, NOW), name(store));
+            assertFalse(store.consume(userId, OtpPurpose.VERIFICATION, "123456", 5, NOW), name(store));
+        }
+    }
+
+    @Test
+    void codeDiesAfterMaxAttemptsUntilReissued() {
+        for (OtpStore store : stores()) {
+            long userId = newUserId();
+            store.put(userId, OtpPurpose.PASSWORD_RESET, "123456", NOW.plusMinutes(10));
+            for (int i = 0; i < 3; i++) {
+                assertFalse(store.consume(userId, OtpPurpose.PASSWORD_RESET, "000000", 3, NOW), name(store));
+            }
+            // Right code, but the attempts are used up
+            assertFalse(store.consume(userId, OtpPurpose.PASSWORD_RESET, "123456", 3, NOW), name(store));
+
+            store.put(userId, OtpPurpose.PASSWORD_RESET, "654321", NOW.plusMinutes(10));
+            assertTrue(store.consume(userId, OtpPurpose.PASSWORD_RESET, "654321", 3, NOW), name(store));
+        }
+    }
+
+    @Test
+    void expiredCodesAreRefusedAndEvictedInBulk() {
+        for (OtpStore store : stores()) {
+            store.evictExpired(NOW.plusYears(100));
+            long first = newUserId();
+            long second = newUserId();
+            long live = newUserId();
+            store.put(first, OtpPurpose.VERIFICATION, "111111", NOW.minusMinutes(1));
+            store.put(second, OtpPurpose.PASSWORD_RESET, "222222", NOW);
+            store.put(live, OtpPurpose.VERIFICATION, "333333", NOW.plusMinutes(10));
+
+            assertFalse(store.consume(second, OtpPurpose.PASSWORD_RESET, "222222", 5, NOW), name(store));
+            store.put(second, OtpPurpose.PASSWORD_RESET, "222222", NOW);
+
+            assertEquals(2, store.evictExpired(NOW), name(store));
+            assertEquals(1, store.size(), name(store));
+            assertTrue(store.consume(live, OtpPurpose.VERIFICATION, "333333", 5, NOW), name(store));
+        }
+    }
+
+    private List<OtpStore> stores() {
+        return List.of(jdbcOtpStore, inMemoryOtpStore);
+    }
+
+    private static long newUserId() {
+        return ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    }
+
+    private static String name(OtpStore store) {
+        return store.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,152 @@
+package com.aureumpicks.ecommerce.productimport;
+
+import com.aureumpicks.ecommerce.dto.CartRequest;
+import com.aureumpicks.ecommerce.dto.ProductDetail;
+import com.aureumpicks.ecommerce.dto.ProductImportStatus;
+import com.aureumpicks.ecommerce.dto.ProductSummary;
+import com.aureumpicks.ecommerce.model.Product;
+import com.aureumpicks.ecommerce.model.User;
+import com.aureumpicks.ecommerce.repository.ProductRepository;
+import com.aureumpicks.ecommerce.repository.UserRepository;
+import com.aureumpicks.ecommerce.search.ProductFacetIndex;
+import com.aureumpicks.ecommerce.search.ProductSearchIndex;
+import com.aureumpicks.ecommerce.service.CartService;
+import com.aureumpicks.ecommerce.service.CartSummaryService;
+import com.aureumpicks.ecommerce.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ProductImportServiceTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartSummaryService cartSummaryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    private ProductImportStatus importText(String text, String format) {
+        return productImportService.importProducts(
+                new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), format);
+    }
+
+    private Product bySku(String sku) {
+        return productRepository.findBySkuIn(List.of(sku)).get(0);
+    }
+
+    @Test
+    void csvRowsAreUpsertedBySkuAndBadRowsReportedWithTheirLine() {
+        String prefix = UUID.randomUUID().toString().substring(0, 8);
+        String category = "imported-" + prefix;
+        String csv = "sku,name,description,price,stock,category,image_url,rating\n"
+                + prefix + "-1,Desk lamp,\"Warm light, \"\"dimmable\"\"\nsecond line\",19.99,5," + category + ",,4.5\n"
+                + prefix + "-2,Floor lamp,,49.00,2," + category + ",,\n"
+                + prefix + "-3,Broken lamp,,not-a-price,1," + category + ",,\n"
+                + prefix + "-4,Wall lamp,,29.50,0," + category + ",,3\n";
+
+        ProductImportStatus first = importText(csv, "csv");
+        assertEquals("COMPLETED", first.getState());
+        assertEquals(4, first.getRowsRead());
+        assertEquals(3, first.getInserted());
+        assertEquals(1, first.getRejected());
+        assertEquals(5, first.getErrors().get(0).getLine());
+        assertEquals(prefix + "-3", first.getErrors().get(0).getSku());
+        assertEquals("Warm light, \"dimmable\"\nsecond line", bySku(prefix + "-1").getDescription());
+
+        // No stock column: existing stock is kept, price and name are replaced
+        String update = "sku,name,price\n" + prefix + "-1,Desk lamp XL,24.99\n" + prefix + "-5,Clip lamp,9.00\n";
+        ProductImportStatus second = importText(update, "csv");
+        assertEquals(1, second.getUpdated());
+        assertEquals(1, second.getInserted());
+
+        Product updated = bySku(prefix + "-1");
+        ProductDetail detail = productService.getProductDetail(updated.getId());
+        assertEquals(new BigDecimal("24.99"), detail.getPrice());
+        assertEquals("Desk lamp XL", detail.getName());
+        assertEquals(5, detail.getStock());
+        List<ProductSummary> cards = productService.getProductsByCategory(category);
+        assertEquals(3, cards.size());
+    }
+
+    @Test
+    void importedPriceChangesMoveCartSubtotals() {
+        String sku = "cart-" + UUID.randomUUID();
+        importText("sku,name,price,stock\n" + sku + ",Carted lamp,10.00,20\n", "csv");
+        User user = new User();
+        user.setEmail("import-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("secret");
+        user.setIsVerified(true);
+        userRepository.save(user);
+        cartService.addToCart(user.getEmail(), new CartRequest(bySku(sku).getId(), 3));
+        assertEquals(0, new BigDecimal("30.00").compareTo(cartSummaryService.getSummary(user.getEmail()).getSubtotal()));
+
+        importText("sku,name,price\n" + sku + ",Carted lamp,12.50\n", "csv");
+
+        assertEquals(0, new BigDecimal("37.50").compareTo(cartSummaryService.getSummary(user.getEmail()).getSubtotal()));
+    }
+
+    @Test
+    void ndjsonFeedsSpanningSeveralChunksReachTheIndexes() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!(productFacetIndex.isReady() && productSearchIndex.isReady()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        String prefix = UUID.randomUUID().toString().substring(0, 8);
+        String category = "feed-" + prefix;
+        StringBuilder feed = new StringBuilder();
+        for (int i = 0; i < 1200; i++) {
+            feed.append("{\"sku\":\"").append(prefix).append('-').append(i).append("\",\"name\":\"Feed ").append(prefix).append(" item ")
+                    .append(i).append("\",\"price\":").append(5 + i % 50).append(",\"stock\":3,\"category\":\"")
+                    .append(category).append("\"}\n");
+        }
+        feed.append("{\"sku\": broken\n");
+
+        ProductImportStatus status = importText(feed.toString(), "ndjson");
+
+        assertEquals("COMPLETED", status.getState());
+        assertEquals(1201, status.getRowsRead());
+        assertEquals(1200, status.getInserted());
+        assertEquals(1, status.getRejected());
+        assertEquals(1201, status.getErrors().get(0).getLine());
+        assertTrue(status.getErrors().get(0).getMessage().startsWith("Malformed JSON"));
+        assertEquals(1200, productFacetIndex.query(List.of(category), null, null, true, 0, 10).getTotal());
+        assertEquals(1200, productService.searchProducts(prefix, 0, 5).getTotal());
+    }
+
+    @Test
+    void csvWithoutARequiredColumnFailsBeforeWritingAnything() {
+        ProductImportStatus status = importText("sku,name\nx-1,No price\n", "csv");
+
+        assertEquals("FAILED", status.getState());
+        assertEquals(0, status.getInserted());
+        assertEquals("CSV header has no price column", status.getMessage());
+    }
+}
@@ -0,0 +1,98 @@
+package com.aureumpicks.ecommerce.ratelimit;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Test
+    void sixthLoginForSameEmailIsThrottled() throws Exception {
+        String email = "limit-" + UUID.randomUUID() + "@example.com";
+        for (int i = 0; i < 5; i++) {
+            assertNotEquals(429, login(email).getResponse().getStatus());
+        }
+
+        // Case and whitespace don't give an attacker a fresh key
+        MvcResult throttled = login(" " + email.toUpperCase() + " ");
+        assertEquals(429, throttled.getResponse().getStatus());
+        assertNotNull(throttled.getResponse().getHeader("Retry-After"));
+
+        assertNotEquals(429, login("other-" + email).getResponse().getStatus());
+    }
+
+    @Test
+    void bufferedBodyCanBeReadWithAReadListener() throws Exception {
+        String body = "{\"email\":\"async-" + UUID.randomUUID() + "@example.com\",\"password\":\"pw\"}";
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        List<String> events = new ArrayList<>();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+
+        rateLimitFilter.doFilter(request, new MockHttpServletResponse(), (wrapped, response) -> {
+            ServletInputStream in = wrapped.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    events.add("data");
+                    byte[] buffer = new byte[16];
+                    while (in.isReady() && !in.isFinished()) {
+                        int count = in.read(buffer);
+                        if (count > 0) {
+                            read.write(buffer, 0, count);
+                        }
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    events.add("done");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    events.add("error");
+                }
+            });
+        });
+
+        assertEquals(List.of("data", "done"), events);
+        assertEquals(body, read.toString(StandardCharsets.UTF_8));
+    }
+
+    private MvcResult login(String email) throws Exception {
+        return mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email + "\",\"password\":\"wrong password\"}"))
+                .andReturn();
+    }
+}
@@ -0,0 +1,60 @@
+package com.aureumpicks.ecommerce.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlidingWindowRateLimiterTest {
+    private static final long WINDOW = 1000;
+    private static final long START = 10_000;
+
+    @Test
+    void rejectsOverLimitUntilLastWindowHasDecayed() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(4, 100);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("login:email:a", 5, WINDOW, START));
+        }
+
+        // Five hits in [10000, 11000) weigh 4 once 20% of the next window has passed
+        long retryAfter = limiter.tryAcquire("login:email:a", 5, WINDOW, START);
+        assertEquals(1200, retryAfter);
+        assertTrue(limiter.tryAcquire("login:email:a", 5, WINDOW, START + retryAfter - 1) > 0);
+        assertEquals(0, limiter.tryAcquire("login:email:a", 5, WINDOW, START + retryAfter));
+    }
+
+    @Test
+    void countsKeysIndependently() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(4, 100);
+        assertEquals(0, limiter.tryAcquire("a", 1, WINDOW, START));
+        assertTrue(limiter.tryAcquire("a", 1, WINDOW, START) > 0);
+        assertEquals(0, limiter.tryAcquire("b", 1, WINDOW, START));
+    }
+
+    @Test
+    void dropsLeastRecentlySeenKeyWhenFull() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1, 3);
+        limiter.tryAcquire("a", 1, WINDOW, START);
+        limiter.tryAcquire("b", 1, WINDOW, START);
+        limiter.tryAcquire("c", 1, WINDOW, START);
+        limiter.tryAcquire("a", 1, WINDOW, START);
+        limiter.tryAcquire("d", 1, WINDOW, START);
+
+        assertEquals(3, limiter.size());
+        assertEquals(1, limiter.evictions());
+        // "b" was evicted, so it starts over; "a" is still limited
+        assertEquals(0, limiter.tryAcquire("b", 1, WINDOW, START));
+        assertTrue(limiter.tryAcquire("a", 1, WINDOW, START) > 0);
+    }
+
+    @Test
+    void evictsOnlyIdleKeys() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1, 100);
+        limiter.tryAcquire("a", 5, WINDOW, START);
+        limiter.tryAcquire("b", 5, WINDOW, START + 500);
+        limiter.tryAcquire("c", 5, WINDOW, START + 100);
+
+        assertEquals(1, limiter.evictIdle(START + 400));
+        assertEquals(2, limiter.size());
+    }
+}
@@ -0,0 +1,138 @@
+package com.aureumpicks.ecommerce.search;
+
+import com.aureumpicks.ecommerce.dto.FacetCounts;
+import com.aureumpicks.ecommerce.model.Product;
+import com.aureumpicks.ecommerce.repository.ProductRepository;
+import com.aureumpicks.ecommerce.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ProductFacetIndexTest {
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private String lamps;
+    private String rugs;
+
+    @BeforeEach
+    void waitForIndex() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!productFacetIndex.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(productFacetIndex.isReady());
+        lamps = "lamps-" + UUID.randomUUID();
+        rugs = "rugs-" + UUID.randomUUID();
+    }
+
+    private Product addProduct(String category, String price, double rating, int stock) {
+        Product product = new Product();
+        product.setName("Faceted product");
+        product.setCategory(category);
+        product.setPrice(new BigDecimal(price));
+        product.setRating(rating);
+        product.setStock(stock);
+        return productService.addProduct(product);
+    }
+
+    @Test
+    void countsEachFacetWithTheOtherFiltersApplied() {
+        addProduct(lamps, "10.00", 4.5, 5);
+        addProduct(lamps, "30.00", 3.2, 0);
+        Product match = addProduct(lamps, "40.00", 4.0, 2);
+        addProduct(rugs, "12.00", 5.0, 1);
+
+        ProductFacetIndex.Result byCategory = productFacetIndex.query(List.of(lamps), null, null, false, 0, 10);
+        FacetCounts counts = byCategory.getCounts();
+        assertEquals(3, byCategory.getTotal());
+        assertEquals(3, counts.getCategories().get(lamps));
+        assertEquals(1, counts.getCategories().get(rugs));
+        assertEquals(1, counts.getPrices().get("0-25"));
+        assertEquals(2, counts.getPrices().get("25-50"));
+        assertEquals(2, counts.getRatings().get("4+"));
+        assertEquals(3, counts.getRatings().get("3+"));
+        assertEquals(2, counts.getInStock());
+
+        ProductFacetIndex.Result narrowed = productFacetIndex.query(List.of(lamps), List.of("25-50"), 4, true, 0, 10);
+        assertEquals(List.of(match.getId()), narrowed.getPageIds());
+        assertEquals(1, narrowed.getCounts().getCategories().get(lamps));
+        assertFalse(narrowed.getCounts().getCategories().containsKey(rugs));
+        // Price counts ignore the price filter itself: the 10.00 lamp is in stock and rated 4.5
+        assertEquals(1, narrowed.getCounts().getPrices().get("0-25"));
+    }
+
+    @Test
+    void followsWritesAndStockChanges() {
+        Product cheap = addProduct(lamps, "15.00", 4.0, 3);
+        Product moved = addProduct(lamps, "60.00", 2.0, 3);
+
+        Product changes = new Product();
+        changes.setName(moved.getName());
+        changes.setCategory(lamps);
+        changes.setPrice(new BigDecimal("20.00"));
+        changes.setRating(2.0);
+        changes.setStock(3);
+        productService.updateProduct(moved.getId(), changes);
+        assertEquals(2, productFacetIndex.query(List.of(lamps), List.of("0-25"), null, false, 0, 10).getTotal());
+
+        productService.deleteProduct(moved.getId());
+        assertEquals(List.of(cheap.getId()), productFacetIndex.query(List.of(lamps), null, null, false, 0, 10).getPageIds());
+
+        // Order flushes write stock directly, without a change event
+        Product stored = productRepository.findById(cheap.getId()).orElseThrow();
+        stored.setStock(0);
+        productRepository.save(stored);
+        productFacetIndex.refreshStock();
+        assertEquals(0, productFacetIndex.query(List.of(lamps), null, null, true, 0, 10).getTotal());
+    }
+
+    @Test
+    void rolledBackWritesNeverReachTheIndex() {
+        addProduct(lamps, "10.00", 4.5, 5);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            addProduct(lamps, "20.00", 3.0, 5);
+            status.setRollbackOnly();
+        });
+
+        assertEquals(1, productFacetIndex.query(List.of(lamps), null, null, false, 0, 10).getTotal());
+    }
+
+    @Test
+    void pagesPastTheEndAreEmptyAndDeepPagesAreRefused() {
+        addProduct(lamps, "10.00", 4.5, 5);
+        addProduct(lamps, "11.00", 4.5, 5);
+
+        ProductFacetIndex.Result pastEnd = productFacetIndex.query(List.of(lamps), null, null, false, 5, 10);
+        assertTrue(pastEnd.getPageIds().isEmpty());
+        assertEquals(2, pastEnd.getTotal());
+        assertThrows(ArithmeticException.class,
+                () -> productFacetIndex.query(List.of(lamps), null, null, false, Integer.MAX_VALUE, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.browseProducts(List.of(lamps), null, null, null, Integer.MAX_VALUE, 10));
+    }
+}
@@ -0,0 +1,135 @@
+package com.aureumpicks.ecommerce.search;
+
+import com.aureumpicks.ecommerce.dto.ProductSearchResponse;
+import com.aureumpicks.ecommerce.dto.ProductSummary;
+import com.aureumpicks.ecommerce.model.Product;
+import com.aureumpicks.ecommerce.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ProductSearchIndexTest {
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // A made-up word per test, so products other tests add never match
+    private String word;
+
+    @BeforeEach
+    void waitForIndex() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!productSearchIndex.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(productSearchIndex.isReady());
+        StringBuilder letters = new StringBuilder();
+        for (int i = 0; i < 9; i++) {
+            letters.append((char) ('a' + ThreadLocalRandom.current().nextInt(26)));
+        }
+        word = letters.toString();
+    }
+
+    private Product addProduct(String name, String category, String description) {
+        Product product = new Product();
+        product.setName(name);
+        product.setCategory(category);
+        product.setDescription(description);
+        product.setPrice(new BigDecimal("25.00"));
+        product.setStock(4);
+        return productService.addProduct(product);
+    }
+
+    private List<Long> ids(String query) {
+        return productSearchIndex.search(query, 0, 10).getItems().stream().map(ProductSummary::getId).toList();
+    }
+
+    @Test
+    void matchesEveryTokenWithPrefixOnTheLastAndTyposOnLongTerms() {
+        Product lantern = addProduct("Brass " + word + " lantern", "lighting", "Hangs from a hook");
+        addProduct("Brass " + word + " kettle", "kitchen", "Whistles when ready");
+
+        assertEquals(List.of(lantern.getId()), ids(word + " lant"));
+        assertEquals(2, ids(word.substring(0, 5)).size());
+        // Only the last token is a prefix; earlier ones must match a whole term
+        assertTrue(ids(word.substring(0, 5) + " lantern").isEmpty());
+
+        String swapped = word.charAt(1) + "" + word.charAt(0) + word.substring(2);
+        String substituted = word.substring(0, 4) + (word.charAt(4) == 'x' ? 'y' : 'x') + word.substring(5);
+        assertEquals(List.of(lantern.getId()), ids(swapped + " lantern"));
+        assertEquals(List.of(lantern.getId()), ids(substituted + " lantern"));
+        assertTrue(ids(word.substring(3) + " lantern").isEmpty());
+    }
+
+    @Test
+    void ranksNameAboveDescriptionAndExactAbovePrefixAndPagesInThatOrder() {
+        // Both terms appear in two products, so only the field and the prefix discount separate the scores
+        Product inDescription = addProduct("Plain mug", "kitchen", "Glazed in " + word + " blue, " + word + "ware finish");
+        Product inName = addProduct(word + " mug", "kitchen", "Glazed stoneware");
+        Product byPrefix = addProduct(word + "ware mug", "kitchen", "Glazed stoneware");
+
+        List<Long> ranked = ids(word);
+        assertEquals(3, ranked.size());
+        assertEquals(inName.getId(), ranked.get(0));
+        assertTrue(ranked.indexOf(inName.getId()) < ranked.indexOf(inDescription.getId()));
+        assertTrue(ranked.indexOf(inName.getId()) < ranked.indexOf(byPrefix.getId()));
+
+        for (int page = 0; page < 3; page++) {
+            ProductSearchResponse single = productSearchIndex.search(word, page, 1);
+            assertEquals(3, single.getTotal());
+            assertEquals(ranked.get(page), single.getItems().get(0).getId());
+        }
+        assertTrue(productSearchIndex.search(word, 3, 1).getItems().isEmpty());
+    }
+
+    @Test
+    void followsCreatesUpdatesAndDeletes() {
+        Product product = addProduct(word + " stool", "furniture", "Three legs");
+        assertEquals(List.of(product.getId()), ids(word));
+
+        Product changes = new Product();
+        changes.setName("Oak stool");
+        changes.setCategory("furniture");
+        changes.setDescription("Three legs, " + word + "wood seat");
+        changes.setPrice(product.getPrice());
+        changes.setStock(product.getStock());
+        productService.updateProduct(product.getId(), changes);
+        assertTrue(ids(word + " stool").isEmpty());
+        assertEquals(List.of(product.getId()), ids(word + "wood"));
+        assertEquals("Oak stool", productSearchIndex.search(word + "wood", 0, 10).getItems().get(0).getName());
+
+        productService.deleteProduct(product.getId());
+        assertTrue(ids(word + "wood").isEmpty());
+        assertTrue(ids(word).isEmpty());
+    }
+
+    @Test
+    void rolledBackDeleteLeavesTheProductSearchable() {
+        Product product = addProduct(word + " bench", "furniture", "Seats two");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            productService.deleteProduct(product.getId());
+            assertEquals(List.of(product.getId()), ids(word));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(List.of(product.getId()), ids(word));
+    }
+}
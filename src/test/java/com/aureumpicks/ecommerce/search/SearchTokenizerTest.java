@@ -0,0 +1,26 @@
+package com.aureumpicks.ecommerce.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchTokenizerTest {
+    private final SearchTokenizer tokenizer = new SearchTokenizer();
+
+    @Test
+    void lowerCasesFoldsAccentsAndSplitsOnPunctuation() {
+        assertEquals(List.of("creme", "brulee", "torch", "2000w"), tokenizer.tokenize("Crème-Brûlée TORCH, 2000W!"));
+        assertEquals(List.of("cafe", "noir"), tokenizer.tokenize("  café\tnoir\n"));
+    }
+
+    @Test
+    void dropsStopWordsAndKeepsInputOrder() {
+        assertEquals(List.of("lamp", "desk", "lamp"), tokenizer.tokenize("The lamp for your desk and a lamp"));
+        assertTrue(tokenizer.tokenize("the and of").isEmpty());
+        assertTrue(tokenizer.tokenize(null).isEmpty());
+        assertTrue(tokenizer.tokenize("  ").isEmpty());
+    }
+}
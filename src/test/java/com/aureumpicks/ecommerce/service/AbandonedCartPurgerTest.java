@@ -0,0 +1,161 @@
+package com.aureumpicks.ecommerce.service;
+
+import com.aureumpicks.ecommerce.dto.CartRequest;
+import com.aureumpicks.ecommerce.model.Product;
+import com.aureumpicks.ecommerce.model.User;
+import com.aureumpicks.ecommerce.repository.CartArchiveRepository;
+import com.aureumpicks.ecommerce.repository.CartRepository;
+import com.aureumpicks.ecommerce.repository.ProductRepository;
+import com.aureumpicks.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "app.cart.purge.chunk-size=2",
+        "app.cart.purge.pause-ms=0"
+})
+@Import(AbandonedCartPurgerTest.Ticker.class)
+class AbandonedCartPurgerTest {
+
+    // A fast @Scheduled job sharing the application's scheduler with the nightly purge
+    @TestConfiguration
+    static class Ticker {
+        final AtomicInteger ticks = new AtomicInteger();
+
+        @Scheduled(fixedDelay = 20)
+        void tick() {
+            ticks.incrementAndGet();
+        }
+    }
+
+    @Autowired
+    private Ticker ticker;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private AbandonedCartPurger abandonedCartPurger;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartSummaryService cartSummaryService;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartArchiveRepository cartArchiveRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void archivesAndRemovesIdleCartsInChunks() {
+        Product product = new Product();
+        product.setName("Purge product");
+        product.setPrice(new BigDecimal("15.00"));
+        product.setStock(1000);
+        product = productRepository.save(product);
+
+        List<User> idle = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            User user = createUser();
+            cartService.addToCart(user.getEmail(), new CartRequest(product.getId(), i + 1));
+            jdbcTemplate.update("update carts set updated_at = ? where user_id = ?",
+                    LocalDateTime.now().minusDays(45), user.getId());
+            idle.add(user);
+        }
+        User active = createUser();
+        cartService.addToCart(active.getEmail(), new CartRequest(product.getId(), 1));
+
+        long purged = abandonedCartPurger.run();
+
+        assertTrue(purged >= idle.size());
+        for (int i = 0; i < idle.size(); i++) {
+            User user = idle.get(i);
+            assertTrue(cartRepository.findByUser(user).isEmpty());
+            assertEquals(0, cartSummaryService.getSummary(user.getEmail()).getItemCount());
+            assertEquals(i + 1, cartArchiveRepository.findByUserId(user.getId()).get(0).getQuantity());
+        }
+        assertEquals(1, cartRepository.findByUser(active).size());
+
+        Map<String, Object> metrics = abandonedCartPurger.getMetrics();
+        assertTrue((Long) metrics.get("chunks") >= 3);
+        assertEquals(0L, metrics.get("resumeAfterUserId"));
+    }
+
+    @Test
+    void pausedPurgeDoesNotHoldUpOtherScheduledJobs() throws InterruptedException {
+        Product product = new Product();
+        product.setName("Slow purge product");
+        product.setPrice(new BigDecimal("5.00"));
+        product.setStock(1000);
+        product = productRepository.save(product);
+        for (int i = 0; i < 3; i++) {
+            User user = createUser();
+            cartService.addToCart(user.getEmail(), new CartRequest(product.getId(), 1));
+            jdbcTemplate.update("update carts set updated_at = ? where user_id = ?",
+                    LocalDateTime.now().minusDays(45), user.getId());
+        }
+
+        ReflectionTestUtils.setField(abandonedCartPurger, "pauseMillis", 1500L);
+        try {
+            // Fired the way the cron trigger fires it, on the scheduler
+            taskScheduler.schedule(abandonedCartPurger::purge, Instant.now());
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (!(Boolean) abandonedCartPurger.getMetrics().get("running") && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue((Boolean) abandonedCartPurger.getMetrics().get("running"));
+
+            int before = ticker.ticks.get();
+            Thread.sleep(300);
+            assertTrue((Boolean) abandonedCartPurger.getMetrics().get("running"), "purge should still be pausing");
+            assertTrue(ticker.ticks.get() > before, "scheduled job stalled behind the purge");
+        } finally {
+            ReflectionTestUtils.setField(abandonedCartPurger, "pauseMillis", 0L);
+            long deadline = System.currentTimeMillis() + 10_000;
+            while ((Boolean) abandonedCartPurger.getMetrics().get("running") && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+        }
+        assertFalse((Boolean) abandonedCartPurger.getMetrics().get("running"));
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setEmail("purge-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("secret");
+        user.setIsVerified(true);
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,81 @@
+package com.aureumpicks.ecommerce.service;
+
+import com.aureumpicks.ecommerce.dto.LoginRequest;
+import com.aureumpicks.ecommerce.dto.ResetPasswordRequest;
+import com.aureumpicks.ecommerce.model.OtpPurpose;
+import com.aureumpicks.ecommerce.model.User;
+import com.aureumpicks.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class AuthServiceTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OtpService otpService;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Test
+    void loginUpgradesHashesMadeWithAnOlderCost() {
+        User user = new User();
+        user.setEmail("auth-" + UUID.randomUUID() + "@example.com");
+        user.setPassword(new BCryptPasswordEncoder(4).encode("correct horse"));
+        user.setIsVerified(true);
+        user = userRepository.save(user);
+
+        assertNotNull(authService.login(new LoginRequest(user.getEmail(), "correct horse")).getToken());
+
+        String upgraded = userRepository.findById(user.getId()).orElseThrow().getPassword();
+        assertTrue(upgraded.startsWith("$2a$10$"), upgraded);
+        // Still the same password, and no further upgrade needed
+        assertNotNull(authService.login(new LoginRequest(user.getEmail(), "correct horse")).getToken());
+        assertEquals(upgraded, userRepository.findById(user.getId()).orElseThrow().getPassword());
+    }
+
+    @Test
+    void resetRejectedByABusyHasherKeepsTheCodeForTheRetry() {
+        User user = new User();
+        user.setEmail("reset-" + UUID.randomUUID() + "@example.com");
+        user.setPassword(new BCryptPasswordEncoder(4).encode("old password"));
+        user.setIsVerified(true);
+        user = userRepository.save(user);
+        String otp = otpService.issue(user, OtpPurpose.PASSWORD_RESET);
+        ResetPasswordRequest request = new ResetPasswordRequest(user.getEmail(), otp, "new password");
+
+        Object target = AopTestUtils.getTargetObject(authService);
+        ReflectionTestUtils.setField(target, "passwordHashingService", new PasswordHashingService() {
+            @Override
+            public String encode(String rawPassword) {
+                throw new PasswordHashingBusyException("Too many sign-in attempts right now, please retry shortly", 1);
+            }
+        });
+        try {
+            assertThrows(PasswordHashingBusyException.class, () -> authService.resetPassword(request));
+        } finally {
+            ReflectionTestUtils.setField(target, "passwordHashingService", passwordHashingService);
+        }
+
+        authService.resetPassword(request);
+        String stored = userRepository.findById(user.getId()).orElseThrow().getPassword();
+        assertTrue(passwordHashingService.matches("new password", stored));
+    }
+}
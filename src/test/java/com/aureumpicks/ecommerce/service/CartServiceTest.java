@@ -0,0 +1,385 @@
+package com.aureumpicks.ecommerce.service;
+
+import com.aureumpicks.ecommerce.dto.CartBatchResponse;
+import com.aureumpicks.ecommerce.dto.CartOperation;
+import com.aureumpicks.ecommerce.dto.CartRequest;
+import com.aureumpicks.ecommerce.dto.CartResponse;
+import com.aureumpicks.ecommerce.dto.CartSummaryResponse;
+import com.aureumpicks.ecommerce.inventory.StockReservationService;
+import com.aureumpicks.ecommerce.model.Cart;
+import com.aureumpicks.ecommerce.model.Product;
+import com.aureumpicks.ecommerce.model.User;
+import com.aureumpicks.ecommerce.repository.CartRepository;
+import com.aureumpicks.ecommerce.repository.ProductRepository;
+import com.aureumpicks.ecommerce.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class CartServiceTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartSummaryService cartSummaryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setEmail("cart-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("secret");
+        user.setIsVerified(true);
+        return userRepository.save(user);
+    }
+
+    private Product createProduct(int index) {
+        Product product = new Product();
+        product.setName("Cart product " + index);
+        product.setPrice(new BigDecimal("10.50").add(BigDecimal.valueOf(index)));
+        product.setStock(1000);
+        product.setImageUrl("https://example.com/" + index + ".jpg");
+        return productRepository.save(product);
+    }
+
+    @Test
+    void cartReadIsASingleStatementRegardlessOfLineCount() {
+        User user = createUser();
+        for (int i = 0; i < 40; i++) {
+            Cart cart = new Cart();
+            cart.setUser(user);
+            cart.setProduct(createProduct(i));
+            cart.setQuantity(i % 3 + 1);
+            cartRepository.save(cart);
+        }
+
+        statistics.clear();
+        List<CartResponse> items = cartService.getUserCart(user.getEmail());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(40, items.size());
+        CartResponse second = items.get(1);
+        assertEquals("Cart product 1", second.getProductName());
+        assertEquals(0, new BigDecimal("11.50").compareTo(second.getProductPrice()));
+        assertEquals(2, second.getQuantity());
+        assertEquals(0, new BigDecimal("23.00").compareTo(second.getTotalPrice()));
+    }
+
+    @Test
+    void emptyCartDistinguishesMissingUser() {
+        User user = createUser();
+
+        assertEquals(List.of(), cartService.getUserCart(user.getEmail()));
+        assertThrows(RuntimeException.class, () -> cartService.getUserCart("missing-" + user.getEmail()));
+    }
+
+    @Test
+    void summaryTracksEveryCartWriteIncrementally() {
+        User user = createUser();
+        String email = user.getEmail();
+        Product ring = createProduct(1);
+        Product watch = createProduct(2);
+
+        CartResponse ringLine = cartService.addToCart(email, new CartRequest(ring.getId(), 2));
+        cartService.addToCart(email, new CartRequest(watch.getId(), 1));
+        cartService.addToCart(email, new CartRequest(ring.getId(), 1));
+        assertSummaryMatchesCart(email, 2, 4);
+
+        cartService.updateCartItem(email, ringLine.getId(), 5);
+        assertSummaryMatchesCart(email, 2, 6);
+
+        Product repriced = productService.getProductById(watch.getId());
+        repriced.setPrice(new BigDecimal("99.99"));
+        productService.updateProduct(watch.getId(), repriced);
+        assertSummaryMatchesCart(email, 2, 6);
+
+        cartService.removeFromCart(email, ringLine.getId());
+        assertSummaryMatchesCart(email, 1, 1);
+
+        long versionBeforeClear = cartSummaryService.getSummary(email).getVersion();
+        cartService.clearCart(email);
+        CartSummaryResponse cleared = cartSummaryService.getSummary(email);
+        assertEquals(0, cleared.getItemCount());
+        assertEquals(0, cleared.getSubtotal().signum());
+        assertTrue(cleared.getVersion() > versionBeforeClear);
+
+        statistics.clear();
+        cartSummaryService.getSummary(email);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void batchAppliesValidOperationsWithSetBasedStatements() {
+        User user = createUser();
+        String email = user.getEmail();
+        Product kept = createProduct(1);
+        Product removed = createProduct(2);
+        CartResponse keptLine = cartService.addToCart(email, new CartRequest(kept.getId(), 1));
+        cartService.addToCart(email, new CartRequest(removed.getId(), 1));
+
+        List<CartOperation> operations = new ArrayList<>();
+        operations.add(new CartOperation(CartOperation.Type.UPDATE, null, keptLine.getId(), 4));
+        operations.add(new CartOperation(CartOperation.Type.REMOVE, removed.getId(), null, null));
+        operations.add(new CartOperation(CartOperation.Type.ADD, 999_999L, null, 1));
+        operations.add(new CartOperation(CartOperation.Type.UPDATE, null, 999_999L, 2));
+        List<Long> added = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Product product = createProduct(10 + i);
+            added.add(product.getId());
+            operations.add(new CartOperation(CartOperation.Type.ADD, product.getId(), null, 1));
+        }
+        operations.add(new CartOperation(CartOperation.Type.ADD, added.get(0), null, 2));
+
+        statistics.clear();
+        CartBatchResponse response = cartService.applyBatch(email, operations);
+        long statements = statistics.getPrepareStatementCount();
+
+        // Hibernate statistics don't see the two JdbcTemplate batches; everything else is a fixed handful
+        assertTrue(statements <= 6, "batch used " + statements + " JPA statements");
+        assertEquals(operations.size(), response.getResults().size());
+        assertFalse(response.getResults().get(2).getSuccess());
+        assertFalse(response.getResults().get(3).getSuccess());
+        assertEquals(2, response.getResults().stream().filter(result -> !result.getSuccess()).count());
+
+        List<CartResponse> cart = cartService.getUserCart(email);
+        assertEquals(26, cart.size());
+        assertEquals(4, cart.stream().filter(line -> line.getProductId().equals(kept.getId())).findFirst().orElseThrow().getQuantity());
+        assertEquals(3, cart.stream().filter(line -> line.getProductId().equals(added.get(0))).findFirst().orElseThrow().getQuantity());
+        assertSummaryMatchesCart(email, 26, 4 + 3 + 24);
+    }
+
+    @Test
+    void concurrentAddsToOneCartNeverLoseIncrements() throws Exception {
+        User user = createUser();
+        String email = user.getEmail();
+        Product ring = createProduct(1);
+        Product watch = createProduct(2);
+        int threads = 12;
+        int addsPerThread = 20;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < addsPerThread; i++) {
+                    Long productId = i % 2 == 0 ? ring.getId() : watch.getId();
+                    cartService.addToCart(email, new CartRequest(productId, 1));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(120, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        int expectedPerProduct = threads * addsPerThread / 2;
+        List<CartResponse> cart = cartService.getUserCart(email);
+        assertEquals(2, cart.size());
+        for (CartResponse line : cart) {
+            assertEquals(expectedPerProduct, line.getQuantity());
+        }
+        assertSummaryMatchesCart(email, 2, threads * addsPerThread);
+    }
+
+    @Test
+    void cartHoldsStockAndCheckoutFlushesItToTheDatabase() {
+        User first = createUser();
+        User second = createUser();
+        Product product = createProduct(1);
+        product.setStock(5);
+        productRepository.save(product);
+
+        CartResponse firstLine = cartService.addToCart(first.getEmail(), new CartRequest(product.getId(), 3));
+        assertThrows(RuntimeException.class,
+                () -> cartService.addToCart(second.getEmail(), new CartRequest(product.getId(), 3)));
+        cartService.addToCart(second.getEmail(), new CartRequest(product.getId(), 2));
+        assertEquals(0L, stockReservationService.getAvailable(product.getId()));
+
+        cartService.removeFromCart(first.getEmail(), firstLine.getId());
+        cartService.updateCartItem(second.getEmail(),
+                cartService.getUserCart(second.getEmail()).get(0).getId(), 5);
+
+        stockReservationService.commit(second.getId(), Map.of(product.getId(), 5));
+        stockReservationService.flush();
+        assertEquals(0, productRepository.findStockById(product.getId()).orElseThrow());
+        assertEquals(0L, stockReservationService.getAvailable(product.getId()));
+    }
+
+    @Test
+    void rolledBackStockEditLeavesAvailabilityAlone() {
+        User user = createUser();
+        Product product = createProduct(1);
+        product.setStock(5);
+        productRepository.save(product);
+        cartService.addToCart(user.getEmail(), new CartRequest(product.getId(), 1));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Product restocked = productRepository.findById(product.getId()).orElseThrow();
+            restocked.setStock(100);
+            productService.updateProduct(product.getId(), restocked);
+            status.setRollbackOnly();
+        });
+
+        assertEquals(4L, stockReservationService.getAvailable(product.getId()));
+        assertThrows(RuntimeException.class,
+                () -> cartService.addToCart(user.getEmail(), new CartRequest(product.getId(), 10)));
+    }
+
+    @Test
+    void clearingACartIsTheSameStatementsForAnySize() {
+        User small = createUser();
+        User large = createUser();
+        List<Cart> largeLines = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Product product = createProduct(i);
+            if (i < 2) {
+                saveLine(small, product);
+            }
+            largeLines.add(saveLine(large, product));
+        }
+
+        statistics.clear();
+        cartService.clearCart(small.getEmail());
+        long smallStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        cartService.clearCart(large.getEmail());
+
+        assertEquals(smallStatements, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityDeleteCount());
+        assertTrue(cartRepository.findByUser(large).isEmpty());
+        assertFalse(cartRepository.existsById(largeLines.get(0).getId()));
+        assertSummaryMatchesCart(large.getEmail(), 0, 0);
+    }
+
+    @Test
+    void bulkDeleteFlushesPendingChangesAndDetachesLines() {
+        User user = createUser();
+        Cart line = saveLine(user, createProduct(1));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Cart managed = cartRepository.findById(line.getId()).orElseThrow();
+            managed.setQuantity(7);
+            assertEquals(1, cartRepository.deleteByUser(user));
+            // Cleared, so a lookup goes to the database instead of returning the stale instance
+            assertTrue(cartRepository.findById(line.getId()).isEmpty());
+        });
+    }
+
+    @Test
+    void deletingAProductRemovesItsLinesFromEveryCart() {
+        Product discontinued = createProduct(1);
+        Product kept = createProduct(2);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            User user = createUser();
+            cartService.addToCart(user.getEmail(), new CartRequest(discontinued.getId(), i + 1));
+            cartService.addToCart(user.getEmail(), new CartRequest(kept.getId(), 1));
+            users.add(user);
+        }
+
+        statistics.clear();
+        productService.deleteProduct(discontinued.getId());
+
+        // Lookup, summary update, line delete, then the product is re-read (the bulk delete cleared it) and deleted
+        assertEquals(5, statistics.getPrepareStatementCount());
+        assertFalse(productRepository.existsById(discontinued.getId()));
+        for (User user : users) {
+            assertSummaryMatchesCart(user.getEmail(), 1, 1);
+        }
+    }
+
+    @Test
+    void purgeKeepsLinesWrittenAfterTheCutoff() {
+        User user = createUser();
+        Product stale = createProduct(1);
+        Product fresh = createProduct(2);
+        cartService.addToCart(user.getEmail(), new CartRequest(stale.getId(), 2));
+        cartService.addToCart(user.getEmail(), new CartRequest(fresh.getId(), 1));
+        jdbcTemplate.update("update carts set updated_at = ? where user_id = ? and product_id = ?",
+                LocalDateTime.now().minusDays(30), user.getId(), stale.getId());
+
+        int removed = cartService.purgeIdleLines(List.of(user.getId()), LocalDateTime.now().minusDays(7), false);
+
+        assertEquals(1, removed);
+        assertSummaryMatchesCart(user.getEmail(), 1, 1);
+    }
+
+    private Cart saveLine(User user, Product product) {
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cart.setProduct(product);
+        cart.setQuantity(1);
+        return cartRepository.save(cart);
+    }
+
+    private void assertSummaryMatchesCart(String email, int lines, int items) {
+        List<CartResponse> cart = cartService.getUserCart(email);
+        BigDecimal subtotal = cart.stream().map(CartResponse::getTotalPrice).reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        CartSummaryResponse summary = cartSummaryService.getSummary(email);
+        assertEquals(lines, summary.getLineCount());
+        assertEquals(items, summary.getItemCount());
+        assertEquals(0, subtotal.compareTo(summary.getSubtotal()), "expected " + subtotal + " but was " + summary.getSubtotal());
+    }
+}
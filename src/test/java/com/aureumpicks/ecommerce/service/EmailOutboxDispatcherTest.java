@@ -0,0 +1,188 @@
+package com.aureumpicks.ecommerce.service;
+
+import com.aureumpicks.ecommerce.model.EmailOutbox;
+import com.aureumpicks.ecommerce.model.EmailType;
+import com.aureumpicks.ecommerce.repository.EmailOutboxRepository;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "app.email.outbox.enabled=true",
+        "app.email.outbox.poll-interval-ms=50",
+        "app.email.outbox.backoff-base-ms=10",
+        "app.email.outbox.max-attempts=3"
+})
+class EmailOutboxDispatcherTest {
+
+    // Stands in for Brevo: replies with the queued status codes, then 201
+    private static final HttpServer brevoStub = startStub();
+    private static final Queue<Integer> stubResponses = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger stubRequests = new AtomicInteger();
+    private static final Queue<String> stubBodies = new ConcurrentLinkedQueue<>();
+    // Any request naming this recipient is rejected with a 400, as Brevo does for an invalid address
+    private static final String UNDELIVERABLE = "undeliverable@example.com";
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @DynamicPropertySource
+    static void brevoProperties(DynamicPropertyRegistry registry) {
+        registry.add("brevo.api.url", () -> "http://localhost:" + brevoStub.getAddress().getPort() + "/v3/smtp/email");
+    }
+
+    private static HttpServer startStub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/v3/smtp/email", exchange -> {
+                stubRequests.incrementAndGet();
+                String requestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                stubBodies.add(requestBody);
+                Integer status = stubResponses.poll();
+                if (status == null && requestBody.contains(UNDELIVERABLE)) {
+                    status = 400;
+                }
+                byte[] body = "{\"messageId\":\"stub\"}".getBytes(StandardCharsets.UTF_8);
+                if (status != null && status == 429) {
+                    exchange.getResponseHeaders().add("x-sib-ratelimit-reset", "0.05");
+                }
+                exchange.sendResponseHeaders(status != null ? status : 201, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @AfterAll
+    static void stopStub() {
+        brevoStub.stop(0);
+    }
+
+    @BeforeEach
+    void resetStub() {
+        stubResponses.clear();
+        stubRequests.set(0);
+        stubBodies.clear();
+    }
+
+    @Test
+    void sendReturnsImmediatelyAndDispatcherRetriesUntilDelivered() throws InterruptedException {
+        stubResponses.add(503);
+
+        long started = System.nanoTime();
+        emailService.sendVerificationEmail("retry@example.com", "123456");
+        long enqueueMillis = (System.nanoTime() - started) / 1_000_000;
+
+        EmailOutbox email = awaitFinalStatus("retry@example.com");
+        assertEquals(EmailOutbox.Status.SENT, email.getStatus());
+        assertEquals(2, email.getAttempts());
+        assertNull(email.getParams());
+        assertEquals(2, stubRequests.get());
+        assertTrue(enqueueMillis < 1000, "enqueue took " + enqueueMillis + " ms");
+    }
+
+    @Test
+    void permanentRejectionIsDeadLetteredWithoutRetry() throws InterruptedException {
+        stubResponses.add(400);
+
+        emailOutboxService.enqueue(EmailType.PASSWORD_RESET, "rejected@example.com", Map.of("otp", "654321"));
+
+        EmailOutbox email = awaitFinalStatus("rejected@example.com");
+        assertEquals(EmailOutbox.Status.DEAD, email.getStatus());
+        assertEquals(1, email.getAttempts());
+        assertTrue(email.getLastError().contains("400"));
+    }
+
+    @Test
+    void emailsDueTogetherAreCoalescedAndThrottlingDoesNotBurnAttempts() throws InterruptedException {
+        stubResponses.add(429);
+
+        List<EmailOutbox> emails = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            EmailOutbox email = new EmailOutbox();
+            email.setType(EmailType.VERIFICATION);
+            email.setRecipient("batch" + i + "@example.com");
+            email.setParams("{\"otp\":\"11111" + i + "\"}");
+            email.setNextAttemptAt(LocalDateTime.now());
+            emails.add(email);
+        }
+        emailOutboxRepository.saveAll(emails);
+
+        for (int i = 0; i < 5; i++) {
+            EmailOutbox email = awaitFinalStatus("batch" + i + "@example.com");
+            assertEquals(EmailOutbox.Status.SENT, email.getStatus());
+            assertEquals(1, email.getAttempts());
+        }
+        assertEquals(2, stubRequests.get());
+        assertTrue(stubBodies.stream().allMatch(body -> body.contains("\"messageVersions\"")));
+        assertTrue(stubBodies.peek().contains("batch4@example.com"));
+    }
+
+    @Test
+    void rejectedRecipientIsDeadLetteredAloneAndTheRestOfItsBatchIsSent() throws InterruptedException {
+        List<EmailOutbox> emails = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            EmailOutbox email = new EmailOutbox();
+            email.setType(EmailType.VERIFICATION);
+            email.setRecipient(i == 2 ? UNDELIVERABLE : "split" + i + "@example.com");
+            email.setParams("{\"otp\":\"22222" + i + "\"}");
+            email.setNextAttemptAt(LocalDateTime.now());
+            emails.add(email);
+        }
+        emailOutboxRepository.saveAll(emails);
+
+        EmailOutbox rejected = awaitFinalStatus(UNDELIVERABLE);
+        assertEquals(EmailOutbox.Status.DEAD, rejected.getStatus());
+        assertEquals(1, rejected.getAttempts());
+        for (int i : new int[] {0, 1, 3}) {
+            EmailOutbox email = awaitFinalStatus("split" + i + "@example.com");
+            assertEquals(EmailOutbox.Status.SENT, email.getStatus());
+            assertEquals(1, email.getAttempts());
+        }
+    }
+
+    private EmailOutbox awaitFinalStatus(String recipient) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            EmailOutbox email = emailOutboxRepository.findAll().stream()
+                    .filter(candidate -> candidate.getRecipient().equals(recipient))
+                    .findFirst()
+                    .orElse(null);
+            if (email != null && email.getStatus() != EmailOutbox.Status.PENDING) {
+                return email;
+            }
+            Thread.sleep(25);
+        }
+        throw new AssertionError("Email to " + recipient + " was not dispatched in time");
+    }
+}
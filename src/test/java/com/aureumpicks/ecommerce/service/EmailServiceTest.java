@@ -0,0 +1,19 @@
+package com.aureumpicks.ecommerce.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EmailServiceTest {
+    private final EmailService emailService = new EmailService();
+
+    @Test
+    void trackingLinksMustBeHttpOrHttps() {
+        String[] rejected = {"javascript:alert(1)", "data:text/html,hi", "//tracker.example/1",
+                "ftp://tracker.example/1", "not a url"};
+        for (String url : rejected) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> emailService.sendShippingEmail("buyer@example.com", "A-1", "BlueDart", "BD1", url), url);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.aureumpicks.ecommerce.service;
+
+import com.aureumpicks.ecommerce.model.EmailType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmailTemplateEngineTest {
+    private EmailTemplateEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new EmailTemplateEngine();
+        ReflectionTestUtils.setField(engine, "appName", "AureumPicks");
+        ReflectionTestUtils.setField(engine, "supportedLanguages", List.of("en", "es"));
+        engine.init();
+    }
+
+    @Test
+    void rendersLayoutStylesAndEscapedParams() {
+        String html = engine.renderHtml(EmailType.VERIFICATION, Locale.ENGLISH, Map.of("otp", "<123456>"));
+
+        assertTrue(html.contains("<div class=\"otp\">&lt;123456&gt;</div>"));
+        assertTrue(html.contains("linear-gradient(135deg, #C9A961 0%, #A68B4C 100%)"));
+        assertTrue(html.contains("Welcome to AureumPicks!"));
+        assertFalse(html.contains("{{"));
+        assertEquals("Verify Your Email - AureumPicks",
+                engine.renderSubject(EmailType.VERIFICATION, Locale.ENGLISH, Map.of()));
+    }
+
+    @Test
+    void fallsBackToDefaultLanguageAndPerKeySubjects() {
+        String spanish = engine.renderHtml(EmailType.PASSWORD_RESET, Locale.forLanguageTag("es-MX"), Map.of("otp", "1"));
+        assertTrue(spanish.contains("lang=\"es\""));
+        assertTrue(spanish.contains("Tu código de restablecimiento"));
+
+        String unsupported = engine.renderHtml(EmailType.PASSWORD_RESET, Locale.JAPANESE, Map.of("otp", "1"));
+        assertTrue(unsupported.contains("Your Reset Code"));
+        assertTrue(unsupported.contains("lang=\"en\""));
+
+        assertEquals("Pedido #A-1 confirmado - AureumPicks",
+                engine.renderSubject(EmailType.ORDER_CONFIRMATION, Locale.forLanguageTag("es"), Map.of("orderNumber", "A-1")));
+        String shipping = engine.renderHtml(EmailType.SHIPPING_NOTIFICATION, Locale.forLanguageTag("es"),
+                Map.of("orderNumber", "A-1", "carrier", "SEUR", "trackingNumber", "S1", "trackingUrl", "https://seur.example/S1"));
+        assertTrue(shipping.contains("Seguir tu paquete"));
+        assertFalse(shipping.contains("Track your package"));
+    }
+
+    @Test
+    void partlyTranslatedLanguagesGetTheWholeDefaultSet() {
+        // Test resources translate only the verification email into pt
+        ReflectionTestUtils.setField(engine, "supportedLanguages", List.of("en", "pt"));
+        engine.init();
+
+        Locale portuguese = Locale.forLanguageTag("pt-BR");
+        String verification = engine.renderHtml(EmailType.VERIFICATION, portuguese, Map.of("otp", "1"));
+        assertTrue(verification.contains("Welcome to AureumPicks!"));
+        assertTrue(verification.contains("lang=\"en\""));
+        assertEquals("Verify Your Email - AureumPicks", engine.renderSubject(EmailType.VERIFICATION, portuguese, Map.of()));
+    }
+
+    @Test
+    void sectionsRepeatPerItemAndSkipMissingValues() {
+        String order = engine.renderHtml(EmailType.ORDER_CONFIRMATION, Locale.ENGLISH, Map.of(
+                "orderNumber", "A-1",
+                "total", "300",
+                "items", List.of(
+                        Map.of("name", "Ring", "quantity", 1, "lineTotal", "100"),
+                        Map.of("name", "Watch & Strap", "quantity", 2, "lineTotal", "200"))));
+        assertTrue(order.contains("<td>Ring</td><td>1</td>"));
+        assertTrue(order.contains("<td>Watch &amp; Strap</td><td>2</td>"));
+
+        String shipping = engine.renderHtml(EmailType.SHIPPING_NOTIFICATION, Locale.ENGLISH,
+                Map.of("orderNumber", "A-1", "carrier", "BlueDart", "trackingNumber", "BD1"));
+        assertTrue(shipping.contains("BD1"));
+        assertFalse(shipping.contains("Track your package"));
+    }
+}
@@ -0,0 +1,159 @@
+package com.aureumpicks.ecommerce.service;
+
+import com.aureumpicks.ecommerce.dto.CartRequest;
+import com.aureumpicks.ecommerce.dto.CartSummaryResponse;
+import com.aureumpicks.ecommerce.dto.OrderResponse;
+import com.aureumpicks.ecommerce.inventory.StockReservationService;
+import com.aureumpicks.ecommerce.model.Product;
+import com.aureumpicks.ecommerce.model.User;
+import com.aureumpicks.ecommerce.repository.OrderRepository;
+import com.aureumpicks.ecommerce.repository.ProductRepository;
+import com.aureumpicks.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class OrderServiceTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartSummaryService cartSummaryService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductResponseCache productResponseCache;
+
+    private User createUser() {
+        User user = new User();
+        user.setEmail("order-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("secret");
+        user.setIsVerified(true);
+        return userRepository.save(user);
+    }
+
+    private Product createProduct(String price, int stock) {
+        Product product = new Product();
+        product.setName("Order product " + price);
+        product.setPrice(new BigDecimal(price));
+        product.setStock(stock);
+        return productRepository.save(product);
+    }
+
+    @Test
+    void stockFlushRefreshesCachedProductViews() {
+        User user = createUser();
+        Product lamp = createProduct("40.00", 6);
+        lamp.setCategory("flush-" + UUID.randomUUID());
+        productRepository.save(lamp);
+        assertEquals(6, productService.getProductDetail(lamp.getId()).getStock());
+        assertEquals(6, productService.getProductsByCategory(lamp.getCategory()).get(0).getStock());
+        String etag = productResponseCache.product(lamp.getId(), null).getHeaders().getETag();
+
+        cartService.addToCart(user.getEmail(), new CartRequest(lamp.getId(), 2));
+        orderService.checkout(user.getEmail(), null);
+        stockReservationService.flush();
+
+        assertEquals(4, productService.getProductDetail(lamp.getId()).getStock());
+        assertEquals(4, productService.getProductsByCategory(lamp.getCategory()).get(0).getStock());
+        assertFalse(etag.equals(productResponseCache.product(lamp.getId(), null).getHeaders().getETag()));
+    }
+
+    @Test
+    void checkoutSnapshotsPricesEmptiesCartAndDecrementsStock() {
+        User user = createUser();
+        Product ring = createProduct("100.00", 10);
+        Product watch = createProduct("250.50", 10);
+        cartService.addToCart(user.getEmail(), new CartRequest(ring.getId(), 2));
+        cartService.addToCart(user.getEmail(), new CartRequest(watch.getId(), 1));
+
+        OrderResponse order = orderService.checkout(user.getEmail(), null);
+
+        assertFalse(order.getReplayed());
+        assertEquals(3, order.getItemCount());
+        assertEquals(0, new BigDecimal("450.50").compareTo(order.getTotal()));
+        assertEquals(2, order.getLines().size());
+        assertTrue(cartService.getUserCart(user.getEmail()).isEmpty());
+        CartSummaryResponse summary = cartSummaryService.getSummary(user.getEmail());
+        assertEquals(0, summary.getItemCount());
+
+        stockReservationService.flush();
+        assertEquals(8, productRepository.findStockById(ring.getId()).orElseThrow());
+        assertEquals(9, productRepository.findStockById(watch.getId()).orElseThrow());
+
+        // Later price changes don't rewrite the order
+        ring.setPrice(new BigDecimal("999.00"));
+        productRepository.save(ring);
+        OrderResponse reloaded = orderService.getUserOrder(user.getEmail(), order.getId());
+        assertEquals(0, new BigDecimal("100.00").compareTo(reloaded.getLines().get(0).getUnitPrice()));
+        assertThrows(RuntimeException.class, () -> orderService.checkout(user.getEmail(), null));
+    }
+
+    @Test
+    void retriesWithTheSameKeyReturnTheFirstOrder() throws Exception {
+        User user = createUser();
+        Product product = createProduct("75.00", 10);
+        cartService.addToCart(user.getEmail(), new CartRequest(product.getId(), 1));
+        String key = UUID.randomUUID().toString();
+
+        int attempts = 6;
+        ExecutorService pool = Executors.newFixedThreadPool(attempts);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<OrderResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                return orderService.checkout(user.getEmail(), key);
+            }));
+        }
+        start.countDown();
+        List<OrderResponse> responses = new ArrayList<>();
+        try {
+            for (Future<OrderResponse> future : futures) {
+                responses.add(future.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long placed = responses.stream().filter(response -> !response.getReplayed()).count();
+        assertEquals(1, placed);
+        assertTrue(responses.stream().allMatch(response -> response.getId().equals(responses.get(0).getId())));
+        assertEquals(1, orderRepository.findByUserIdOrderByIdDesc(user.getId()).size());
+        assertEquals(1, orderService.checkout(user.getEmail(), key).getLines().size());
+    }
+}
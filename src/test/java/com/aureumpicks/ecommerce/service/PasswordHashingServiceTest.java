@@ -0,0 +1,107 @@
+package com.aureumpicks.ecommerce.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHashingServiceTest {
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void rejectsImmediatelyWhenPoolAndQueueAreFull() throws Exception {
+        service = create(blockingEncoder(), 1, 1, 10_000);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.encode("b"));
+        waitForQueued(1);
+
+        long began = System.nanoTime();
+        assertThrows(PasswordHashingBusyException.class, () -> service.encode("c"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began) < 1000);
+
+        release.countDown();
+        assertEquals("hash:a", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash:b", queued.get(5, TimeUnit.SECONDS));
+        assertEquals(1L, service.getMetrics().get("rejected"));
+    }
+
+    @Test
+    void givesUpWhenTheHashDoesNotFinishInTime() throws Exception {
+        service = create(blockingEncoder(), 1, 4, 50);
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> service.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(PasswordHashingBusyException.class, () -> service.matches("b", "hash:b"));
+        // The blocked first call times out as well
+        assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertEquals(2L, service.getMetrics().get("timedOut"));
+    }
+
+    @Test
+    void flagsHashesMadeWithALowerCost() {
+        service = create(new BCryptPasswordEncoder(5), 1, 1, 10_000);
+
+        assertTrue(service.needsRehash(new BCryptPasswordEncoder(4).encode("secret")));
+        String current = service.encode("secret");
+        assertFalse(service.needsRehash(current));
+        assertTrue(service.matches("secret", current));
+    }
+
+    private PasswordHashingService create(PasswordEncoder encoder, int threads, int queueCapacity, long maxWaitMillis) {
+        PasswordHashingService created = new PasswordHashingService();
+        ReflectionTestUtils.setField(created, "passwordEncoder", encoder);
+        ReflectionTestUtils.setField(created, "threads", threads);
+        ReflectionTestUtils.setField(created, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(created, "maxWaitMillis", maxWaitMillis);
+        created.init();
+        return created;
+    }
+
+    private void waitForQueued(int expected) throws InterruptedException {
+        for (int i = 0; i < 500 && !Integer.valueOf(expected).equals(service.getMetrics().get("queued")); i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    // Holds every hash until the test releases it
+    private PasswordEncoder blockingEncoder() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encode(rawPassword).equals(encodedPassword);
+            }
+        };
+    }
+}
@@ -0,0 +1,136 @@
+package com.aureumpicks.ecommerce.service;
+
+import com.aureumpicks.ecommerce.config.CacheConfig;
+import com.aureumpicks.ecommerce.dto.ProductSummary;
+import com.aureumpicks.ecommerce.model.Product;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.CacheManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "app.cache.products.max-size=50",
+        "app.cache.product-lists.max-size=5"
+})
+class ProductCacheTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Product addProduct(String category) {
+        Product product = new Product();
+        product.setName("Cached product");
+        product.setCategory(category);
+        product.setPrice(new BigDecimal("19.00"));
+        product.setStock(3);
+        return productService.addProduct(product);
+    }
+
+    private Object cached(String cacheName, Object key) {
+        ValueWrapper entry = cacheManager.getCache(cacheName).get(key);
+        return entry == null ? null : entry.get();
+    }
+
+    private Cache<?, ?> nativeCache(String cacheName) {
+        Object cache = cacheManager.getCache(cacheName).getNativeCache();
+        return cache instanceof AsyncCache<?, ?> async ? async.synchronous() : (Cache<?, ?>) cache;
+    }
+
+    @Test
+    void repeatReadsAreServedWithoutTheDatabase() {
+        String category = "cached-" + UUID.randomUUID();
+        Product product = addProduct(category);
+        productService.getProductDetail(product.getId());
+        productService.getProductsByCategory(category);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        productService.getProductDetail(product.getId());
+        productService.getProductsByCategory(category);
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void writesEvictTheProductAndEveryCategoryItWasListedIn() {
+        String from = "cached-" + UUID.randomUUID();
+        String to = "cached-" + UUID.randomUUID();
+        String untouched = "cached-" + UUID.randomUUID();
+        Product product = addProduct(from);
+        addProduct(untouched);
+        productService.getProductDetail(product.getId());
+        productService.getProductsByCategory(from);
+        productService.getProductsByCategory(to);
+        productService.getProductsByCategory(untouched);
+
+        Product changes = productService.getProductById(product.getId());
+        changes.setCategory(to);
+        productService.updateProduct(product.getId(), changes);
+
+        assertNull(cached(CacheConfig.PRODUCT_DETAILS, product.getId()));
+        assertNull(cached(CacheConfig.PRODUCTS_BY_CATEGORY, from));
+        assertNull(cached(CacheConfig.PRODUCTS_BY_CATEGORY, to));
+        assertNotNull(cached(CacheConfig.PRODUCTS_BY_CATEGORY, untouched));
+        assertEquals(1, productService.getProductsByCategory(to).size());
+
+        productService.getProductDetail(product.getId());
+        productService.deleteProduct(product.getId());
+        assertNull(cached(CacheConfig.PRODUCT_DETAILS, product.getId()));
+        assertNull(cached(CacheConfig.PRODUCTS_BY_CATEGORY, to));
+    }
+
+    @Test
+    void callersCannotChangeWhatOthersRead() {
+        String category = "cached-" + UUID.randomUUID();
+        Product product = addProduct(category);
+
+        Product first = productService.getProductById(product.getId());
+        first.setName("Edited but never saved");
+        assertNotSame(first, productService.getProductById(product.getId()));
+        assertEquals("Cached product", productService.getProductById(product.getId()).getName());
+        assertEquals("Cached product", productService.getProductDetail(product.getId()).getName());
+
+        List<ProductSummary> cards = productService.getProductsByCategory(category);
+        assertThrows(UnsupportedOperationException.class, () -> cards.clear());
+        assertEquals(1, productService.getProductsByCategory(category).size());
+    }
+
+    @Test
+    void everyCacheIsBoundedAndUnknownNamesAreRefused() {
+        assertEquals(50, nativeCache(CacheConfig.PRODUCT_DETAILS).policy().eviction().orElseThrow().getMaximum());
+        assertEquals(5, nativeCache(CacheConfig.PRODUCTS_BY_CATEGORY).policy().eviction().orElseThrow().getMaximum());
+        assertTrue(nativeCache(CacheConfig.TOKEN_VERSIONS).policy().eviction().isPresent());
+        assertTrue(nativeCache(CacheConfig.PRODUCT_DETAILS).policy().expireAfterWrite().isPresent());
+        assertNull(cacheManager.getCache("products"));
+
+        for (int i = 0; i < 20; i++) {
+            productService.getProductsByCategory("cached-" + UUID.randomUUID());
+        }
+        Cache<?, ?> lists = nativeCache(CacheConfig.PRODUCTS_BY_CATEGORY);
+        lists.cleanUp();
+        assertTrue(lists.estimatedSize() <= 5, "size " + lists.estimatedSize());
+    }
+}
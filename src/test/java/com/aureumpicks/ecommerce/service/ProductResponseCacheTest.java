@@ -0,0 +1,131 @@
+package com.aureumpicks.ecommerce.service;
+
+import com.aureumpicks.ecommerce.model.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ProductResponseCacheTest {
+
+    @Autowired
+    private ProductResponseCache productResponseCache;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Product addProduct(String category, int descriptionLength) {
+        Product product = new Product();
+        product.setName("Encoded product");
+        product.setCategory(category);
+        product.setDescription("d".repeat(descriptionLength));
+        product.setPrice(new BigDecimal("19.99"));
+        product.setStock(3);
+        return productService.addProduct(product);
+    }
+
+    @Test
+    void hitsReuseTheSameBytesAndMatchJackson() {
+        Product product = addProduct("encoded-" + UUID.randomUUID(), 10);
+
+        ResponseEntity<byte[]> first = productResponseCache.product(product.getId(), null);
+        ResponseEntity<byte[]> second = productResponseCache.product(product.getId(), null);
+
+        assertSame(first.getBody(), second.getBody());
+        assertArrayEquals(objectMapper.writeValueAsBytes(productService.getProductDetail(product.getId())), first.getBody());
+        // Too small to be worth compressing
+        assertNull(productResponseCache.product(product.getId(), "gzip").getHeaders().getFirst("Content-Encoding"));
+    }
+
+    @Test
+    void gzipCopyIsServedOnlyToClientsThatAcceptIt() throws Exception {
+        String category = "encoded-" + UUID.randomUUID();
+        // List cards carry no description, so it takes a few rows to pass the gzip threshold
+        for (int i = 0; i < 20; i++) {
+            addProduct(category, 10);
+        }
+
+        ResponseEntity<byte[]> plain = productResponseCache.category(category, null);
+        ResponseEntity<byte[]> gzipped = productResponseCache.category(category, "br, gzip;q=0.8");
+        ResponseEntity<byte[]> refused = productResponseCache.category(category, "gzip;q=0");
+
+        assertEquals("gzip", gzipped.getHeaders().getFirst("Content-Encoding"));
+        assertTrue(gzipped.getBody().length < plain.getBody().length);
+        assertArrayEquals(plain.getBody(), new GZIPInputStream(new ByteArrayInputStream(gzipped.getBody())).readAllBytes());
+        assertNotEquals(plain.getHeaders().getETag(), gzipped.getHeaders().getETag());
+        assertNull(refused.getHeaders().getFirst("Content-Encoding"));
+        assertEquals("Accept-Encoding", plain.getHeaders().getFirst("Vary"));
+    }
+
+    @Test
+    void productWriteReencodesCachedEntries() throws Exception {
+        String category = "encoded-" + UUID.randomUUID();
+        Product product = addProduct(category, 10);
+        productResponseCache.product(product.getId(), null);
+        productResponseCache.category(category, null);
+
+        Product changed = productService.getProductById(product.getId());
+        changed.setPrice(new BigDecimal("24.50"));
+        productService.updateProduct(product.getId(), changed);
+
+        Map<?, ?> body = objectMapper.readValue(productResponseCache.product(product.getId(), null).getBody(), Map.class);
+        assertEquals(24.5, ((Number) body.get("price")).doubleValue());
+        String list = new String(productResponseCache.category(category, null).getBody());
+        assertTrue(list.contains("24.5"), list);
+    }
+
+    @Test
+    void pagesAreRebuiltOnceTheCatalogVersionMoves() {
+        ResponseEntity<byte[]> before = productResponseCache.page("id", "desc", 5, null, null);
+        assertSame(before.getBody(), productResponseCache.page("id", "desc", 5, null, null).getBody());
+
+        long version = catalogVersionService.getVersion();
+        Product product = addProduct("encoded-" + UUID.randomUUID(), 10);
+        assertTrue(catalogVersionService.getVersion() > version);
+
+        String after = new String(productResponseCache.page("id", "desc", 5, null, null).getBody());
+        assertTrue(after.contains("\"id\":" + product.getId()), after);
+    }
+
+    @Test
+    void entriesAreEvictedToStayWithinTheByteBudget() {
+        ProductResponseCache small = new ProductResponseCache();
+        ReflectionTestUtils.setField(small, "productService", productService);
+        ReflectionTestUtils.setField(small, "catalogVersionService", catalogVersionService);
+        ReflectionTestUtils.setField(small, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(small, "enabled", true);
+        ReflectionTestUtils.setField(small, "maxBytes", 8_000L);
+        ReflectionTestUtils.setField(small, "ttlSeconds", 60L);
+        small.init();
+
+        for (int i = 0; i < 10; i++) {
+            small.product(addProduct("encoded-" + UUID.randomUUID(), 1000).getId(), null);
+        }
+
+        Map<String, Object> metrics = small.getMetrics();
+        assertTrue(((Number) metrics.get("bytes")).longValue() <= 8_000L, metrics.toString());
+        assertTrue(((Number) metrics.get("entries")).longValue() < 10, metrics.toString());
+    }
+}
@@ -0,0 +1,151 @@
+package com.aureumpicks.ecommerce.service;
+
+import com.aureumpicks.ecommerce.dto.ProductDetail;
+import com.aureumpicks.ecommerce.dto.ProductPageResponse;
+import com.aureumpicks.ecommerce.dto.ProductSummary;
+import com.aureumpicks.ecommerce.model.Product;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ProductServiceTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Product addProduct(String category) {
+        Product product = new Product();
+        product.setName("Projected product");
+        product.setCategory(category);
+        product.setDescription("A long description ".repeat(200));
+        product.setPrice(new BigDecimal("30.00"));
+        product.setStock(7);
+        return productService.addProduct(product);
+    }
+
+    @Test
+    void catalogReadsSelectProjectionsWithoutLoadingEntities() {
+        String category = "projected-" + UUID.randomUUID();
+        Product first = addProduct(category);
+        addProduct(category);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        ProductDetail detail = productService.getProductDetail(first.getId());
+        List<ProductSummary> cards = productService.getProductsByCategory(category);
+        productService.getAllProducts();
+
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(first.getDescription(), detail.getDescription());
+        assertEquals(2, cards.size());
+    }
+
+    @Test
+    void listCardsLeaveOutTheDescriptionAndTimestampsUsedOnlyForValidators() {
+        String category = "projected-" + UUID.randomUUID();
+        Product product = addProduct(category);
+
+        String cards = objectMapper.writeValueAsString(productService.getProductsByCategory(category));
+        String detail = objectMapper.writeValueAsString(productService.getProductDetail(product.getId()));
+
+        assertFalse(cards.contains("description"), cards);
+        assertFalse(cards.contains("updatedAt"), cards);
+        assertTrue(detail.contains("A long description"), detail);
+        assertFalse(detail.contains("updatedAt") || detail.contains("createdAt"), detail);
+    }
+
+    @Test
+    void ratingPagesWalkTiesWithoutGapsOrRepeats() {
+        String category = "paged-" + UUID.randomUUID();
+        Set<Long> added = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            Long id = addProduct(category).getId();
+            jdbcTemplate.update("update products set rating = ? where id = ?", new double[] {4.0, 2.5, 0.0}[i % 3], id);
+            added.add(id);
+        }
+
+        for (boolean descending : new boolean[] {false, true}) {
+            List<ProductSummary> walked = new ArrayList<>();
+            String cursor = null;
+            do {
+                ProductPageResponse page = productService.getProductPage("rating", descending ? "desc" : "asc", 3, cursor);
+                walked.addAll(page.getItems());
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+
+            Comparator<ProductSummary> order = Comparator.comparing(ProductSummary::getRating)
+                    .thenComparing(ProductSummary::getId);
+            List<ProductSummary> expected = new ArrayList<>(walked);
+            expected.sort(descending ? order.reversed() : order);
+            assertEquals(expected, walked);
+            assertEquals(walked.size(), walked.stream().map(ProductSummary::getId).distinct().count());
+            assertTrue(walked.stream().map(ProductSummary::getId).toList().containsAll(added));
+        }
+    }
+
+    @Test
+    void ratingIsRequiredAndOlderUnratedRowsAreBackfilled() {
+        Long id = addProduct("backfill-" + UUID.randomUUID()).getId();
+        assertThrows(DataIntegrityViolationException.class,
+                () -> jdbcTemplate.update("update products set rating = null where id = ?", id));
+
+        // A table created before the column was required
+        jdbcTemplate.execute("alter table products alter column rating set null");
+        try {
+            jdbcTemplate.update("update products set rating = null where id = ?", id);
+            productService.backfillRatings();
+        } finally {
+            jdbcTemplate.execute("alter table products alter column rating set not null");
+        }
+        assertEquals(0.0, jdbcTemplate.queryForObject("select rating from products where id = ?", Double.class, id));
+    }
+
+    @Test
+    void readDuringADeleteDoesNotLeaveTheDeletedProductCached() {
+        Product product = addProduct("evicted-" + UUID.randomUUID());
+        productService.getProductDetail(product.getId());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            productService.deleteProduct(product.getId());
+            // Another request still sees the committed row and caches it while the delete is in flight
+            CompletableFuture.runAsync(() -> productService.getProductDetail(product.getId())).join();
+        });
+
+        assertThrows(RuntimeException.class, () -> productService.getProductDetail(product.getId()));
+    }
+}
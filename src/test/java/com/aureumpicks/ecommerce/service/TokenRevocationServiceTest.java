@@ -0,0 +1,53 @@
+package com.aureumpicks.ecommerce.service;
+
+import com.aureumpicks.ecommerce.config.CacheConfig;
+import com.aureumpicks.ecommerce.model.User;
+import com.aureumpicks.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+class TokenRevocationServiceTest {
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void revokingBumpsTheVersionAndEvictsTheCachedOne() {
+        User user = new User();
+        user.setEmail("revoke-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("secret");
+        user.setIsVerified(true);
+        user = userRepository.save(user);
+        Cache versions = cacheManager.getCache(CacheConfig.TOKEN_VERSIONS);
+
+        assertEquals(0, tokenRevocationService.getTokenVersion(user.getEmail()));
+        assertNotNull(versions.get(user.getEmail()));
+
+        tokenRevocationService.revokeAllTokens(user);
+
+        assertNull(versions.get(user.getEmail()));
+        assertEquals(1, tokenRevocationService.getTokenVersion(user.getEmail()));
+        assertEquals(1, userRepository.findById(user.getId()).orElseThrow().getTokenVersion());
+    }
+
+    @Test
+    void unknownAccountsHaveNoVersion() {
+        assertNull(tokenRevocationService.getTokenVersion("nobody-" + UUID.randomUUID() + "@example.com"));
+    }
+}
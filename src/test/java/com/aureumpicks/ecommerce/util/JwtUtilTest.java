@@ -0,0 +1,90 @@
+package com.aureumpicks.ecommerce.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtUtilTest {
+    private static final String OLD_SECRET = "old-secret-key-that-is-long-enough-for-hs256-signing";
+    private static final String NEW_SECRET = "new-secret-key-that-is-long-enough-for-hs256-signing";
+
+    private JwtUtil jwtUtil(String kid, String secret, String verificationKeys) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", secret);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtil, "keyId", kid);
+        ReflectionTestUtils.setField(jwtUtil, "verificationKeys", verificationKeys);
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheMaxSize", 1000L);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    @Test
+    void tokensSignedWithRetiredKeyStillVerifyDuringRotation() {
+        String oldToken = jwtUtil("k1", OLD_SECRET, "").generateToken("user@example.com", 3);
+        JwtUtil rotated = jwtUtil("k2", NEW_SECRET, "k1:" + OLD_SECRET);
+
+        Claims claims = rotated.parseClaims(oldToken);
+        assertEquals("user@example.com", claims.getSubject());
+        assertEquals(3, rotated.extractTokenVersion(claims));
+        assertTrue(rotated.validateToken(rotated.generateToken("user@example.com"), "user@example.com"));
+    }
+
+    @Test
+    void tokensSignedWithUnknownKeyAreRejected() {
+        String oldToken = jwtUtil("k1", OLD_SECRET, "").generateToken("user@example.com");
+        JwtUtil rotated = jwtUtil("k2", NEW_SECRET, "");
+
+        assertThrows(JwtException.class, () -> rotated.parseClaims(oldToken));
+    }
+
+    @Test
+    void tamperedTokenIsRejectedEvenAfterOriginalWasCached() {
+        JwtUtil jwtUtil = jwtUtil("k1", NEW_SECRET, "");
+        String token = jwtUtil.generateToken("user@example.com");
+        jwtUtil.parseClaims(token);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        assertThrows(JwtException.class, () -> jwtUtil.parseClaims(tampered));
+    }
+
+    @Test
+    void repeatedVerificationsParseEachTokenOnce() {
+        JwtUtil jwtUtil = jwtUtil("k1", NEW_SECRET, "");
+        String first = jwtUtil.generateToken("first@example.com");
+        String second = jwtUtil.generateToken("second@example.com");
+        Map<String, Integer> parses = new ConcurrentHashMap<>();
+        JwtParser parser = (JwtParser) ReflectionTestUtils.getField(jwtUtil, "parser");
+        JwtParser counting = (JwtParser) Proxy.newProxyInstance(JwtParser.class.getClassLoader(),
+                new Class<?>[]{JwtParser.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("parseSignedClaims")) {
+                        parses.merge((String) args[0], 1, Integer::sum);
+                    }
+                    try {
+                        return method.invoke(parser, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        ReflectionTestUtils.setField(jwtUtil, "parser", counting);
+
+        for (int request = 0; request < 5; request++) {
+            assertEquals("first@example.com", jwtUtil.parseClaims(first).getSubject());
+            assertEquals("second@example.com", jwtUtil.parseClaims(second).getSubject());
+            assertTrue(jwtUtil.validateToken(first, "first@example.com"));
+        }
+
+        assertEquals(Map.of(first, 1, second, 1), parses);
+    }
+}
@@ -0,0 +1,44 @@
+package com.aureumpicks.ecommerce.util;
+
+import com.aureumpicks.ecommerce.dto.ProductSort;
+import com.aureumpicks.ecommerce.dto.ProductSummary;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductCursorUtilTest {
+    private final ProductCursorUtil cursorUtil = new ProductCursorUtil();
+
+    private ProductSummary row(Long id, Double rating) {
+        return new ProductSummary(id, "Cursor product", new BigDecimal("12.50"), "lamps", null, rating, 3,
+                LocalDateTime.of(2030, 1, 2, 3, 4, 5, 600_000_000), null);
+    }
+
+    @Test
+    void everySortRoundTripsItsLastValueAndId() {
+        ProductSummary last = row(42L, 4.5);
+
+        assertEquals(new ProductCursorUtil.Cursor(ProductSort.ID, false, 42L, 42L),
+                cursorUtil.decode(cursorUtil.encode(ProductSort.ID, false, last)));
+        assertEquals(new ProductCursorUtil.Cursor(ProductSort.PRICE, true, new BigDecimal("12.50"), 42L),
+                cursorUtil.decode(cursorUtil.encode(ProductSort.PRICE, true, last)));
+        assertEquals(new ProductCursorUtil.Cursor(ProductSort.RATING, false, 4.5, 42L),
+                cursorUtil.decode(cursorUtil.encode(ProductSort.RATING, false, last)));
+        assertEquals(new ProductCursorUtil.Cursor(ProductSort.CREATED_AT, true, last.getCreatedAt(), 42L),
+                cursorUtil.decode(cursorUtil.encode(ProductSort.CREATED_AT, true, last)));
+    }
+
+    @Test
+    void tamperedCursorsAreRejected() {
+        assertThrows(RuntimeException.class, () -> cursorUtil.decode("not-a-cursor"));
+        String wrongVersion = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("v0|RATING|asc|1.0|3".getBytes(StandardCharsets.UTF_8));
+        assertThrows(RuntimeException.class, () -> cursorUtil.decode(wrongVersion));
+    }
+}